@@ -1,184 +1,2539 @@
+package syntecxhub.restaurant;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import syntecxhub.stats.HotPathStats;
+import syntecxhub.stats.LatencyStats;
+
+// Money helpers: all amounts are whole paise held in a primitive long,
+// so bill math is exact and allocation-free.
+final class Money {
+    static final long PAISE_PER_RUPEE = 100;
+    static final long BPS_SCALE = 10_000; // rates are given in basis points
+
+    private Money() { }
+
+    // Parses "250", "99.5" or "99.50" into paise; more than two decimals is rejected
+    static long parse(String text) {
+        String t = text.trim();
+        int dot = t.indexOf('.');
+        String rupees = dot < 0 ? t : t.substring(0, dot);
+        String fraction = dot < 0 ? "" : t.substring(dot + 1);
+        if (rupees.isEmpty() || rupees.charAt(0) == '-' || rupees.charAt(0) == '+' || fraction.length() > 2) {
+            throw new NumberFormatException("Invalid amount: " + text);
+        }
+        for (int i = 0; i < fraction.length(); i++) {
+            if (!Character.isDigit(fraction.charAt(i))) throw new NumberFormatException("Invalid amount: " + text);
+        }
+        long paise = Math.multiplyExact(Long.parseLong(rupees), PAISE_PER_RUPEE);
+        if (fraction.length() == 1) paise += (fraction.charAt(0) - '0') * 10L;
+        if (fraction.length() == 2) paise += Long.parseLong(fraction);
+        return paise;
+    }
+
+    // Applies a basis-point rate, rounding half-up to the nearest paisa
+    static long applyRate(long paise, long rateBps) {
+        return (paise * rateBps + BPS_SCALE / 2) / BPS_SCALE;
+    }
+
+    // value / divisor rounded half-up, for amounts carried at a finer scale
+    static long divideRounded(long value, long divisor) {
+        return value >= 0 ? (value + divisor / 2) / divisor : -((-value + divisor / 2) / divisor);
+    }
+
+    static String format(long paise) {
+        return appendTo(new StringBuilder(16), paise).toString();
+    }
+
+    static StringBuilder appendTo(StringBuilder sb, long paise) {
+        long abs = Math.abs(paise);
+        long fraction = abs % PAISE_PER_RUPEE;
+        if (paise < 0) sb.append('-');
+        return sb.append(abs / PAISE_PER_RUPEE).append(fraction < 10 ? ".0" : ".").append(fraction);
+    }
+}
 
 // Class representing a menu item
 class MenuItem {
-    private String name;
-    private double price;
+    static final String DEFAULT_CATEGORY = "General";
 
-    public MenuItem(String name, double price) {
+    private final int id;
+    private final String name;
+    private final long pricePaise;
+    private final String category;
+    private final String nameKey; // Menu.normalise(name), for matching combo rules
+    private final int categoryId; // MenuCategories id, for the pricing plan
+
+    public MenuItem(int id, String name, long pricePaise) {
+        this(id, name, pricePaise, DEFAULT_CATEGORY);
+    }
+
+    public MenuItem(int id, String name, long pricePaise, String category) {
+        this.id = id;
         this.name = name;
-        this.price = price;
+        this.pricePaise = pricePaise;
+        this.category = category;
+        this.nameKey = Menu.normalise(name);
+        this.categoryId = MenuCategories.idOf(category);
     }
 
+    public int getId() { return id; }
     public String getName() { return name; }
-    public double getPrice() { return price; }
+    String getNameKey() { return nameKey; }
+    int getCategoryId() { return categoryId; }
+    public long getPricePaise() { return pricePaise; }
+    public String getCategory() { return category; }
+}
+
+// Small dense ids for menu categories, compared case-insensitively, so the
+// pricing plan can keep its rates in arrays indexed by category instead of
+// by menu item. A category keeps its id for the life of the process.
+final class MenuCategories {
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[0];
+
+    private MenuCategories() { }
+
+    static int idOf(String category) {
+        Integer id = IDS.get(category.toLowerCase(Locale.ROOT));
+        return id != null ? id : register(category);
+    }
+
+    private static synchronized int register(String category) {
+        String key = category.toLowerCase(Locale.ROOT);
+        Integer id = IDS.get(key);
+        if (id != null) return id;
+        String[] grown = Arrays.copyOf(names, names.length + 1);
+        grown[names.length] = category;
+        names = grown; // the name is visible before anyone can see its id
+        IDS.put(key, grown.length - 1);
+        return grown.length - 1;
+    }
+
+    // Every category seen so far, indexed by id
+    static String[] names() {
+        return names;
+    }
+}
+
+// Immutable, versioned view of the menu. Items keep a stable id that is
+// never reused, and ids are handed out in order, so id order is display
+// order. Items are held in a table indexed by id and a hash table keyed by
+// the normalised name, both split into pages of PAGE_SIZE slots. An edit
+// copies only the page it touches and the array of page references, and
+// shares every other page with the snapshot before it, so publishing a
+// change costs about the same for a ten-item board and a 1M-item catalogue.
+final class MenuSnapshot {
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int NAME_BUCKETS = PAGE_SIZE * PAGE_SIZE;
+
+    static final MenuSnapshot EMPTY = new MenuSnapshot(0, new MenuItem[0][], new MenuItem[PAGE_SIZE][][], 0, 1);
+
+    private final long version;
+    private final MenuItem[][] byId;
+    private final MenuItem[][][] byName; // page -> bucket -> items whose names hash there
+    private final int size;
+    private final int nextId;
+    private final Collection<MenuItem> items = new AbstractCollection<MenuItem>() {
+        @Override
+        public Iterator<MenuItem> iterator() {
+            return new ItemIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+
+    private MenuSnapshot(long version, MenuItem[][] byId, MenuItem[][][] byName, int size, int nextId) {
+        this.version = version;
+        this.byId = byId;
+        this.byName = byName;
+        this.size = size;
+        this.nextId = nextId;
+    }
+
+    public long getVersion() { return version; }
+    public int getNextId() { return nextId; }
+
+    public MenuItem getItemById(int id) {
+        int page = id >>> PAGE_BITS;
+        if (page >= byId.length || byId[page] == null) return null;
+        return byId[page][id & PAGE_MASK];
+    }
+
+    public MenuItem getItemByName(String name) {
+        return named(byName, Menu.normalise(name));
+    }
+
+    // Items in display order
+    public Collection<MenuItem> getItems() {
+        return items;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Starts a batch of changes on top of this snapshot
+    Builder edit() {
+        return new Builder(this);
+    }
+
+    private static int bucketOf(String nameKey) {
+        int h = nameKey.hashCode();
+        return (h ^ (h >>> 16)) & (NAME_BUCKETS - 1);
+    }
+
+    private static MenuItem named(MenuItem[][][] byName, String nameKey) {
+        int bucket = bucketOf(nameKey);
+        MenuItem[][] page = byName[bucket >>> PAGE_BITS];
+        if (page == null || page[bucket & PAGE_MASK] == null) return null;
+        for (MenuItem item : page[bucket & PAGE_MASK]) {
+            if (item.getNameKey().equals(nameKey)) return item;
+        }
+        return null;
+    }
+
+    private final class ItemIterator implements Iterator<MenuItem> {
+        private int id = 0;
+        private MenuItem next = advance();
+
+        private MenuItem advance() {
+            while (id < nextId) {
+                int page = id >>> PAGE_BITS;
+                if (page >= byId.length) break;
+                if (byId[page] == null) {
+                    id = (page + 1) << PAGE_BITS;
+                    continue;
+                }
+                MenuItem item = byId[page][id++ & PAGE_MASK];
+                if (item != null) return item;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public MenuItem next() {
+            if (next == null) throw new NoSuchElementException();
+            MenuItem item = next;
+            next = advance();
+            return item;
+        }
+    }
+
+    // Collects changes against a base snapshot and publishes them as one new
+    // snapshot. A page is copied the first time the batch writes to it and
+    // then written in place, so replaying a journal or loading a checkpoint
+    // copies each page at most once. Not thread-safe; Menu uses it under its
+    // edit lock, and the base snapshot is never modified.
+    static final class Builder {
+        private MenuItem[][] byId;
+        private final MenuItem[][][] byName;
+        private final BitSet ownedIdPages = new BitSet();
+        private final BitSet ownedNamePages = new BitSet();
+        private int size;
+        private int nextId;
+
+        private Builder(MenuSnapshot base) {
+            byId = base.byId.clone();
+            byName = base.byName.clone();
+            size = base.size;
+            nextId = base.nextId;
+        }
+
+        MenuItem get(int id) {
+            int page = id >>> PAGE_BITS;
+            if (page >= byId.length || byId[page] == null) return null;
+            return byId[page][id & PAGE_MASK];
+        }
+
+        MenuItem getByName(String name) {
+            return named(byName, Menu.normalise(name));
+        }
+
+        int nextId() {
+            return nextId;
+        }
+
+        // Adds the item, or replaces the item that has its id
+        Builder put(MenuItem item) {
+            int id = item.getId();
+            MenuItem old = get(id);
+            if (old != null) {
+                unname(old);
+            } else {
+                size++;
+            }
+            idPage(id >>> PAGE_BITS)[id & PAGE_MASK] = item;
+            name(item);
+            nextId = Math.max(nextId, id + 1);
+            return this;
+        }
+
+        Builder remove(int id) {
+            MenuItem old = get(id);
+            if (old == null) return this;
+            idPage(id >>> PAGE_BITS)[id & PAGE_MASK] = null;
+            unname(old);
+            size--;
+            return this;
+        }
+
+        Builder nextId(int atLeast) {
+            nextId = Math.max(nextId, atLeast);
+            return this;
+        }
+
+        MenuSnapshot build(long version) {
+            return new MenuSnapshot(version, byId, byName, size, nextId);
+        }
+
+        private MenuItem[] idPage(int page) {
+            if (page >= byId.length) byId = Arrays.copyOf(byId, Math.max(page + 1, byId.length * 2));
+            if (!ownedIdPages.get(page)) {
+                byId[page] = byId[page] == null ? new MenuItem[PAGE_SIZE] : byId[page].clone();
+                ownedIdPages.set(page);
+            }
+            return byId[page];
+        }
+
+        private MenuItem[][] namePage(int bucket) {
+            int page = bucket >>> PAGE_BITS;
+            if (!ownedNamePages.get(page)) {
+                byName[page] = byName[page] == null ? new MenuItem[PAGE_SIZE][] : byName[page].clone();
+                ownedNamePages.set(page);
+            }
+            return byName[page];
+        }
+
+        private void name(MenuItem item) {
+            int bucket = bucketOf(item.getNameKey());
+            MenuItem[][] page = namePage(bucket);
+            MenuItem[] items = page[bucket & PAGE_MASK];
+            if (items == null) {
+                items = new MenuItem[] { item };
+            } else {
+                items = Arrays.copyOf(items, items.length + 1);
+                items[items.length - 1] = item;
+            }
+            page[bucket & PAGE_MASK] = items;
+        }
+
+        private void unname(MenuItem item) {
+            int bucket = bucketOf(item.getNameKey());
+            MenuItem[][] page = namePage(bucket);
+            MenuItem[] items = page[bucket & PAGE_MASK];
+            int at = 0;
+            while (items[at] != item) at++;
+            if (items.length == 1) {
+                page[bucket & PAGE_MASK] = null;
+                return;
+            }
+            MenuItem[] fewer = new MenuItem[items.length - 1];
+            System.arraycopy(items, 0, fewer, 0, at);
+            System.arraycopy(items, at + 1, fewer, at, items.length - at - 1);
+            page[bucket & PAGE_MASK] = fewer;
+        }
+    }
 }
 
 // Handles the menu operations
+// Readers take the current snapshot with one volatile read and never
+// block. Each edit builds the next snapshot under the editor lock, copying
+// only the pages it changes, and publishes it with the next version number.
 class Menu {
-    private List<MenuItem> items = new ArrayList<>();
+    private volatile MenuSnapshot current = MenuSnapshot.EMPTY;
+    private final Object editLock = new Object();
+    private OrderJournal journal;
+    private Lock updateLock = new ReentrantReadWriteLock().readLock();
+
+    void attachJournal(OrderJournal journal) {
+        this.journal = journal;
+        this.updateLock = journal.updateLock();
+    }
+
+    static String normalise(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public MenuSnapshot snapshot() {
+        return current;
+    }
+
+    public MenuItem addItem(String name, long pricePaise) {
+        return addItem(name, pricePaise, MenuItem.DEFAULT_CATEGORY);
+    }
 
-    public void addItem(String name, double price) {
-        items.add(new MenuItem(name, price));
-        System.out.println("Item added successfully!");
+    public MenuItem addItem(String name, long pricePaise, String category) {
+        MenuItem item;
+        long seq = 0;
+        updateLock.lock();
+        try {
+            synchronized (editLock) {
+                MenuSnapshot base = current;
+                if (base.getItemByName(name) != null) {
+                    System.out.println("An item named '" + name + "' already exists.");
+                    return null;
+                }
+                item = new MenuItem(base.getNextId(), name, pricePaise, category);
+                restoreItem(item);
+                if (journal != null) seq = journal.logMenuAdd(item, current.getVersion());
+            }
+        } finally {
+            updateLock.unlock();
+        }
+        if (journal != null) journal.commit(seq);
+        System.out.println("Item added successfully! (ID " + item.getId() + ")");
+        return item;
     }
 
     public void removeItem(String name) {
-        items.removeIf(item -> item.getName().equalsIgnoreCase(name));
+        long seq = 0;
+        updateLock.lock();
+        try {
+            synchronized (editLock) {
+                MenuItem item = current.getItemByName(name);
+                if (item != null) {
+                    restoreRemove(item.getId());
+                    if (journal != null) seq = journal.logMenuRemove(item.getId(), current.getVersion());
+                }
+            }
+        } finally {
+            updateLock.unlock();
+        }
+        if (journal != null && seq > 0) journal.commit(seq);
         System.out.println("Item removed (if existed).");
     }
 
+    // Replay hooks: apply a change without journaling it again
+    void restoreItem(MenuItem item) {
+        synchronized (editLock) {
+            publish(current.edit().put(item));
+        }
+    }
+
+    void restoreRemove(int id) {
+        synchronized (editLock) {
+            MenuSnapshot base = current;
+            if (base.getItemById(id) == null) return;
+            publish(base.edit().remove(id));
+        }
+    }
+
+    // Publishes a batch of replayed changes as one snapshot at the version
+    // they were journaled with, so versions keep rising across restarts
+    void restore(MenuSnapshot.Builder changes, long version) {
+        synchronized (editLock) {
+            current = changes.build(Math.max(version, current.getVersion() + 1));
+        }
+    }
+
+    private void publish(MenuSnapshot.Builder changes) {
+        current = changes.build(current.getVersion() + 1);
+    }
+
     public void displayMenu() {
+        MenuSnapshot menu = current;
         System.out.println("\n------ MENU ------");
-        if (items.isEmpty()) {
+        if (menu.isEmpty()) {
             System.out.println("No items in the menu.");
             return;
         }
-        int i = 1;
-        for (MenuItem item : items) {
-            System.out.println(i++ + ". " + item.getName() + " - ₹" + item.getPrice());
+        for (MenuItem item : menu.getItems()) {
+            System.out.println(item.getId() + ". " + item.getName() + " [" + item.getCategory() + "] - ₹"
+                    + Money.format(item.getPricePaise()));
         }
     }
 
-    public MenuItem getItemByIndex(int index) {
-        if (index < 1 || index > items.size()) return null;
-        return items.get(index - 1);
+    public MenuItem getItemById(int id) {
+        return current.getItemById(id);
+    }
+
+    public MenuItem getItemByName(String name) {
+        return current.getItemByName(name);
+    }
+
+    // Items in display order, as of the current snapshot
+    public Collection<MenuItem> getItems() {
+        return current.getItems();
     }
 
     public boolean isEmpty() {
-        return items.isEmpty();
+        return current.isEmpty();
     }
 }
 
 // Class representing an order item
+// The unit price is pinned from the menu snapshot the item was ordered
+// under, so later menu edits never change an open order.
 class OrderItem {
-    private MenuItem item;
+    private final MenuItem item;
+    private final long unitPricePaise;
+    private final long menuVersion;
     private int quantity;
+    private int happyHourQuantity; // units ordered inside a happy-hour window
 
     public OrderItem(MenuItem item, int quantity) {
+        this(item, quantity, 0);
+    }
+
+    public OrderItem(MenuItem item, int quantity, long menuVersion) {
+        this(item, quantity, menuVersion, 0);
+    }
+
+    public OrderItem(MenuItem item, int quantity, long menuVersion, int happyHourQuantity) {
         this.item = item;
+        this.unitPricePaise = item.getPricePaise();
+        this.menuVersion = menuVersion;
         this.quantity = quantity;
+        this.happyHourQuantity = happyHourQuantity;
     }
 
-    public double getTotalPrice() {
-        return item.getPrice() * quantity;
+    private OrderItem(OrderItem other) {
+        this.item = other.item;
+        this.unitPricePaise = other.unitPricePaise;
+        this.menuVersion = other.menuVersion;
+        this.quantity = other.quantity;
+        this.happyHourQuantity = other.happyHourQuantity;
     }
 
+    // Order keeps its own copy as the line, so later adds never change the caller's item
+    OrderItem copy() {
+        return new OrderItem(this);
+    }
+
+    public long getTotalPaise() {
+        return unitPricePaise * quantity;
+    }
+
+    // Only Order changes quantities, while holding its own lock
+    void changeQuantity(int delta, int happyHourDelta) {
+        quantity += delta;
+        happyHourQuantity += happyHourDelta;
+    }
+
+    // Called before the item is added, while it is still private to one thread
+    void markHappyHour(boolean happyHour) {
+        happyHourQuantity = happyHour ? quantity : 0;
+    }
+
+    public MenuItem getMenuItem() { return item; }
+    public int getItemId() { return item.getId(); }
     public String getName() { return item.getName(); }
     public int getQuantity() { return quantity; }
-    public double getPrice() { return item.getPrice(); }
+    public long getPricePaise() { return unitPricePaise; }
+    public long getMenuVersion() { return menuVersion; }
+    public int getHappyHourQuantity() { return happyHourQuantity; }
 }
 
-// Order handling + bill calculation
-class Order {
-    private List<OrderItem> orderItems = new ArrayList<>();
-    private final double GST_RATE = 0.05; // 5% GST
+// One pricing rule, as written in pricing-rules.txt:
+//   gst <category|*> <percent>                     GST slab for a category
+//   service <percent>                              service charge on the bill
+//   happyhour <HH:MM> <HH:MM> <category|*> <percent>  discount while ordering in the window
+//   combo <item> + <item> = <price>                price for the pair when ordered together
+// Later rules override earlier ones for the same category.
+class PricingRule {
+    enum Kind { GST, SERVICE, HAPPY_HOUR, COMBO }
+
+    static final String ANY_CATEGORY = "*";
+
+    private final Kind kind;
+    private final String category;
+    private final long rateBps;
+    private final int startMinute;
+    private final int endMinute;
+    private final String comboFirst;
+    private final String comboSecond;
+    private final long comboPricePaise;
 
-    public void addOrderItem(OrderItem orderItem) {
-        orderItems.add(orderItem);
+    private PricingRule(Kind kind, String category, long rateBps, int startMinute, int endMinute,
+                        String comboFirst, String comboSecond, long comboPricePaise) {
+        this.kind = kind;
+        this.category = category;
+        this.rateBps = rateBps;
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+        this.comboFirst = comboFirst;
+        this.comboSecond = comboSecond;
+        this.comboPricePaise = comboPricePaise;
     }
 
-    public boolean isEmpty() {
-        return orderItems.isEmpty();
+    static PricingRule parse(String line) {
+        String[] parts = line.trim().split("\\s+");
+        switch (parts[0].toLowerCase(Locale.ROOT)) {
+            case "gst":
+                expectParts(line, parts, 3);
+                return new PricingRule(Kind.GST, parts[1], percentToBps(parts[2]), 0, 0, null, null, 0);
+            case "service":
+                expectParts(line, parts, 2);
+                return new PricingRule(Kind.SERVICE, ANY_CATEGORY, percentToBps(parts[1]), 0, 0, null, null, 0);
+            case "happyhour":
+                expectParts(line, parts, 5);
+                return new PricingRule(Kind.HAPPY_HOUR, parts[3], percentToBps(parts[4]),
+                        parseMinute(parts[1]), parseMinute(parts[2]), null, null, 0);
+            case "combo": {
+                String body = line.trim().substring(parts[0].length());
+                int plus = body.indexOf('+');
+                int equals = body.indexOf('=');
+                if (plus < 0 || equals < plus) throw new IllegalArgumentException("Expected 'combo <item> + <item> = <price>': " + line);
+                return new PricingRule(Kind.COMBO, ANY_CATEGORY, 0, 0, 0, body.substring(0, plus).trim(),
+                        body.substring(plus + 1, equals).trim(), Money.parse(body.substring(equals + 1)));
+            }
+            default:
+                throw new IllegalArgumentException("Unknown rule: " + line);
+        }
     }
 
-    public void generateBill() {
-        if (isEmpty()) {
-            System.out.println("No items in the order!");
-            return;
+    private static void expectParts(String line, String[] parts, int count) {
+        if (parts.length != count) throw new IllegalArgumentException("Malformed rule: " + line);
+    }
+
+    // "12.5" percent is 1250 basis points, which is exactly Money's two-decimal fixed point
+    private static long percentToBps(String percent) {
+        long bps = Money.parse(percent);
+        if (bps > Money.BPS_SCALE) throw new IllegalArgumentException("Rate above 100%: " + percent);
+        return bps;
+    }
+
+    private static int parseMinute(String hhmm) {
+        LocalTime time = LocalTime.parse(hhmm);
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    Kind getKind() { return kind; }
+    long getRateBps() { return rateBps; }
+    int getStartMinute() { return startMinute; }
+    int getEndMinute() { return endMinute; }
+    String getComboFirst() { return comboFirst; }
+    String getComboSecond() { return comboSecond; }
+    long getComboPricePaise() { return comboPricePaise; }
+
+    boolean appliesTo(String itemCategory) {
+        return category.equals(ANY_CATEGORY) || category.equalsIgnoreCase(itemCategory);
+    }
+}
+
+// The active rule set plus the plan compiled from it. The plan is compiled
+// lazily and reused until the rules change or a menu item brings in a
+// category the plan has not seen; menu edits alone never recompile it.
+class PricingRules {
+    static final PricingRules DEFAULT = new PricingRules();
+
+    private List<PricingRule> rules = defaultRules();
+    private long rulesVersion = 1;
+    private volatile PricingPlan plan;
+
+    // Same as the old hard-coded behaviour: 5% GST on everything
+    static List<PricingRule> defaultRules() {
+        return List.of(PricingRule.parse("gst * 5"));
+    }
+
+    // Reads rules from a file, skipping blank lines and '#' comments
+    static List<PricingRule> load(File file) throws IOException {
+        List<PricingRule> rules = new ArrayList<>();
+        int lineNo = 0;
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            lineNo++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            try {
+                rules.add(PricingRule.parse(trimmed));
+            } catch (RuntimeException e) {
+                throw new IOException(file + " line " + lineNo + ": " + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+
+    synchronized void setRules(List<PricingRule> newRules) {
+        rules = List.copyOf(newRules);
+        rulesVersion++;
+        plan = null;
+    }
+
+    PricingPlan plan() {
+        PricingPlan current = plan;
+        if (current != null && current.coversAllCategories()) return current;
+        synchronized (this) {
+            current = plan;
+            if (current == null || !current.coversAllCategories()) {
+                current = PricingPlan.compile(rules, rulesVersion);
+                plan = current;
+            }
+            return current;
+        }
+    }
+}
+
+// Flat evaluation plan for one rule set: rates in arrays indexed by menu
+// category id, so pricing a line is a couple of array reads with no rule
+// matching. A category registered after the plan was compiled falls back
+// to matching the rules until the next plan() call recompiles. Combos are
+// matched by name against each order's own lines and priced from the
+// prices pinned on them, so a menu edit never changes the combo on an
+// open order.
+final class PricingPlan {
+    private final List<PricingRule> rules;
+    private final long rulesVersion;
+    private final long serviceChargeBps;
+    private final long[] gstBps;
+    private final long[] happyHourBps;
+    private final int[] happyHourStart;
+    private final int[] happyHourEnd;
+    private final String[] comboFirst;
+    private final String[] comboSecond;
+    private final long[] comboPricePaise;
+    private final Map<String, int[]> combosByName = new HashMap<>(); // item name key -> combos it is in
+
+    private PricingPlan(List<PricingRule> rules, long rulesVersion, int categories, int combos) {
+        this.rules = rules;
+        this.rulesVersion = rulesVersion;
+        long service = 0;
+        for (PricingRule rule : rules) {
+            if (rule.getKind() == PricingRule.Kind.SERVICE) service = rule.getRateBps();
+        }
+        this.serviceChargeBps = service;
+        this.gstBps = new long[categories];
+        this.happyHourBps = new long[categories];
+        this.happyHourStart = new int[categories];
+        this.happyHourEnd = new int[categories];
+        this.comboFirst = new String[combos];
+        this.comboSecond = new String[combos];
+        this.comboPricePaise = new long[combos];
+    }
+
+    static PricingPlan compile(List<PricingRule> rules, long rulesVersion) {
+        List<PricingRule> combos = new ArrayList<>();
+        for (PricingRule rule : rules) {
+            if (rule.getKind() != PricingRule.Kind.COMBO) continue;
+            if (Menu.normalise(rule.getComboFirst()).equals(Menu.normalise(rule.getComboSecond()))) continue;
+            combos.add(rule);
         }
 
-        double subtotal = 0;
+        String[] categories = MenuCategories.names();
+        PricingPlan plan = new PricingPlan(rules, rulesVersion, categories.length, combos.size());
+        for (int c = 0; c < categories.length; c++) {
+            plan.gstBps[c] = resolve(rules, PricingRule.Kind.GST, categories[c]);
+            PricingRule happyHour = match(rules, PricingRule.Kind.HAPPY_HOUR, categories[c]);
+            if (happyHour != null) {
+                plan.happyHourBps[c] = happyHour.getRateBps();
+                plan.happyHourStart[c] = happyHour.getStartMinute();
+                plan.happyHourEnd[c] = happyHour.getEndMinute();
+            }
+        }
+        for (int c = 0; c < combos.size(); c++) {
+            plan.comboFirst[c] = Menu.normalise(combos.get(c).getComboFirst());
+            plan.comboSecond[c] = Menu.normalise(combos.get(c).getComboSecond());
+            plan.comboPricePaise[c] = combos.get(c).getComboPricePaise();
+            plan.indexCombo(plan.comboFirst[c], c);
+            plan.indexCombo(plan.comboSecond[c], c);
+        }
+        return plan;
+    }
 
-        System.out.println("\n========== BILL ==========");
-        for (OrderItem oi : orderItems) {
-            double total = oi.getTotalPrice();
-            subtotal += total;
+    private void indexCombo(String nameKey, int combo) {
+        int[] old = combosByName.get(nameKey);
+        int[] combos = old == null ? new int[1] : Arrays.copyOf(old, old.length + 1);
+        combos[combos.length - 1] = combo;
+        combosByName.put(nameKey, combos);
+    }
 
-            System.out.println(oi.getName() + " x " + oi.getQuantity() + 
-                " = ₹" + total);
+    private static PricingRule match(List<PricingRule> rules, PricingRule.Kind kind, String category) {
+        PricingRule matched = null;
+        for (PricingRule rule : rules) {
+            if (rule.getKind() == kind && rule.appliesTo(category)) matched = rule;
         }
+        return matched;
+    }
+
+    private static long resolve(List<PricingRule> rules, PricingRule.Kind kind, String category) {
+        PricingRule rule = match(rules, kind, category);
+        return rule == null ? 0 : rule.getRateBps();
+    }
 
-        double gst = subtotal * GST_RATE;
-        double grandTotal = subtotal + gst;
+    boolean coversAllCategories() {
+        return gstBps.length == MenuCategories.names().length;
+    }
+
+    long getRulesVersion() { return rulesVersion; }
+    long serviceChargeBps() { return serviceChargeBps; }
+
+    private boolean compiled(int categoryId) {
+        return categoryId < gstBps.length;
+    }
+
+    long gstBps(MenuItem item) {
+        int c = item.getCategoryId();
+        return compiled(c) ? gstBps[c] : resolve(rules, PricingRule.Kind.GST, item.getCategory());
+    }
+
+    long happyHourBps(MenuItem item) {
+        int c = item.getCategoryId();
+        return compiled(c) ? happyHourBps[c] : resolve(rules, PricingRule.Kind.HAPPY_HOUR, item.getCategory());
+    }
 
-        System.out.println("--------------------------");
-        System.out.println("Subtotal: ₹" + subtotal);
-        System.out.println("GST (5%): ₹" + gst);
-        System.out.println("Grand Total: ₹" + grandTotal);
-        System.out.println("==========================");
+    // Whether an item ordered at this minute of the day gets the happy-hour price
+    boolean isHappyHour(MenuItem item, int minuteOfDay) {
+        int c = item.getCategoryId();
+        long rate;
+        int start;
+        int end;
+        if (compiled(c)) {
+            rate = happyHourBps[c];
+            start = happyHourStart[c];
+            end = happyHourEnd[c];
+        } else {
+            PricingRule rule = match(rules, PricingRule.Kind.HAPPY_HOUR, item.getCategory());
+            rate = rule == null ? 0 : rule.getRateBps();
+            start = rule == null ? 0 : rule.getStartMinute();
+            end = rule == null ? 0 : rule.getEndMinute();
+        }
+        if (rate == 0) return false;
+        return start <= end ? minuteOfDay >= start && minuteOfDay < end
+                            : minuteOfDay >= start || minuteOfDay < end; // window crosses midnight
     }
+
+    private static final int[] NO_COMBOS = new int[0];
+
+    int comboCount() { return comboFirst.length; }
+    // The combos an item with this normalised name takes part in
+    int[] combosFor(String nameKey) { return combosByName.getOrDefault(nameKey, NO_COMBOS); }
+    String comboFirst(int combo) { return comboFirst[combo]; }
+    String comboSecond(int combo) { return comboSecond[combo]; }
+    long comboPricePaise(int combo) { return comboPricePaise[combo]; }
 }
 
-// Main class
-public class RestaurantBillingSystem {
-    public static void main(String[] args) {
-        Scanner sc = new Scanner(System.in);
-        Menu menu = new Menu();
-        Order order = new Order();
+// Order handling + bill calculation
+// Each order belongs to one table and is guarded by its own monitor,
+// so waiters on different tables never contend with each other.
+// Repeat orders of a menu item are merged into one line, and the totals
+// are kept current on every add/remove so printing a bill is O(lines)
+// with no arithmetic left to do. Amounts are priced through the compiled
+// PricingPlan; when the plan changes the order is repriced in one pass.
+// Each combo's discount is kept separately, so a change only recomputes
+// the combos its item is part of, over the lines with those two names.
+class Order {
+    private static final long BPS_SQUARED = Money.BPS_SCALE * Money.BPS_SCALE;
 
-        while (true) {
-            System.out.println("\n===== Restaurant Billing System =====");
-            System.out.println("1. Add Menu Item");
-            System.out.println("2. Remove Menu Item");
-            System.out.println("3. Show Menu");
-            System.out.println("4. Place Order");
-            System.out.println("5. Generate Bill");
-            System.out.println("6. Exit");
-            System.out.print("Enter choice: ");
-            int choice = sc.nextInt();
-
-            switch (choice) {
-                case 1 -> {
-                    sc.nextLine();
-                    System.out.print("Enter item name: ");
-                    String itemName = sc.nextLine();
-                    System.out.print("Enter price: ");
-                    double price = sc.nextDouble();
-                    menu.addItem(itemName, price);
-                }
-
-                case 2 -> {
-                    sc.nextLine();
-                    System.out.print("Enter item name to remove: ");
-                    String name = sc.nextLine();
-                    menu.removeItem(name);
-                }
-
-                case 3 -> menu.displayMenu();
-
-                case 4 -> {
-                    if (menu.isEmpty()) {
-                        System.out.println("Menu is empty. Add items first!");
-                        break;
-                    }
+    private final int tableNo;
+    private final PricingRules pricing;
+    private final Map<Integer, OrderItem> orderItems = new LinkedHashMap<>();
+    // Lines by Menu.normalise(name) in line order; an item removed and
+    // re-added has a new id, so one name can have several lines
+    private final Map<String, List<OrderItem>> linesByName = new HashMap<>();
+    private boolean closed;
 
-                    menu.displayMenu();
-                    System.out.print("Select item number: ");
-                    int itemNo = sc.nextInt();
-                    MenuItem selectedItem = menu.getItemByIndex(itemNo);
+    // Running sums under the plan in pricedWith. Happy-hour discount is kept
+    // in paise x bps and GST in paise x bps x bps, so nothing is rounded
+    // until the bill totals are derived.
+    private PricingPlan pricedWith;
+    private long grossPaise;
+    private long happyHourScaled;
+    private long gstScaled;
+    private long comboDiscountPaise;
+    private long comboGstScaled;
+    private long[] comboDiscounts = new long[0]; // per combo of pricedWith
+    private long[] comboGsts = new long[0];
 
-                    if (selectedItem == null) {
-                        System.out.println("Invalid item selection.");
-                        break;
-                    }
+    // Bill totals derived from the sums above after every change
+    private long discountPaise;
+    private long serviceChargePaise;
+    private long gstPaise;
 
-                    System.out.print("Enter quantity: ");
-                    int quantity = sc.nextInt();
+    public Order(int tableNo) {
+        this(tableNo, PricingRules.DEFAULT);
+    }
 
-                    order.addOrderItem(new OrderItem(selectedItem, quantity));
-                    System.out.println("Item added to order!");
-                }
+    public Order(int tableNo, PricingRules pricing) {
+        this.tableNo = tableNo;
+        this.pricing = pricing;
+    }
 
-                case 5 -> order.generateBill();
+    public int getTableNo() { return tableNo; }
 
-                case 6 -> {
-                    System.out.println("Exiting... Thank you!");
-                    return;
-                }
+    // Returns false if the order was already closed by another thread
+    public synchronized boolean addOrderItem(OrderItem orderItem) {
+        if (closed) return false;
+        OrderItem line = orderItems.get(orderItem.getItemId());
+        if (line == null) {
+            line = orderItem.copy();
+            orderItems.put(line.getItemId(), line);
+            linesByName.computeIfAbsent(line.getMenuItem().getNameKey(), k -> new ArrayList<>(1)).add(line);
+        } else {
+            line.changeQuantity(orderItem.getQuantity(), orderItem.getHappyHourQuantity());
+        }
+        PricingPlan plan = pricing.plan();
+        if (plan == pricedWith) {
+            addToTotals(orderItem.getMenuItem(), orderItem.getPricePaise(),
+                    orderItem.getQuantity(), orderItem.getHappyHourQuantity(), plan);
+            updateCombos(plan, line.getMenuItem().getNameKey());
+        } else {
+            reprice(plan);
+        }
+        return true;
+    }
+
+    // Removes up to quantity units of a menu item; returns the number actually removed.
+    // Full-price units go first, so happy-hour units keep their discount.
+    public synchronized int removeOrderItem(int itemId, int quantity) {
+        OrderItem line = orderItems.get(itemId);
+        if (closed || line == null) return 0;
+        int removed = Math.min(quantity, line.getQuantity());
+        int fullPrice = line.getQuantity() - line.getHappyHourQuantity();
+        int removedHappyHour = Math.max(0, removed - fullPrice);
+        line.changeQuantity(-removed, -removedHappyHour);
+        String nameKey = line.getMenuItem().getNameKey();
+        if (line.getQuantity() == 0) {
+            orderItems.remove(itemId);
+            List<OrderItem> named = linesByName.get(nameKey);
+            named.remove(line);
+            if (named.isEmpty()) linesByName.remove(nameKey);
+        }
+        PricingPlan plan = pricing.plan();
+        if (plan == pricedWith) {
+            addToTotals(line.getMenuItem(), line.getPricePaise(), -removed, -removedHappyHour, plan);
+            updateCombos(plan, nameKey);
+        } else {
+            reprice(plan);
+        }
+        return removed;
+    }
+
+    // Adds (or with negative counts, subtracts) units of one line to the running sums
+    private void addToTotals(MenuItem item, long unitPaise, int quantity, int happyHourQuantity, PricingPlan plan) {
+        long gross = unitPaise * quantity;
+        long happyHour = unitPaise * happyHourQuantity * plan.happyHourBps(item);
+        grossPaise += gross;
+        happyHourScaled += happyHour;
+        gstScaled += (gross * Money.BPS_SCALE - happyHour) * plan.gstBps(item);
+    }
+
+    // Recomputes the combos that involve items named nameKey, then the bill totals
+    private void updateCombos(PricingPlan plan, String nameKey) {
+        for (int c : plan.combosFor(nameKey)) {
+            priceCombo(plan, c);
+        }
+        updateTotals(plan);
+    }
+
+    private void priceCombo(PricingPlan plan, int c) {
+        comboDiscountPaise -= comboDiscounts[c];
+        comboGstScaled -= comboGsts[c];
+        long[] sums = new long[2]; // discount, GST
+        pairCombo(plan, c, (first, pairs, perPair) -> {
+            sums[0] += pairs * perPair;
+            // the combo discount lowers the taxable value at the first item's slab
+            sums[1] += pairs * perPair * Money.BPS_SCALE * plan.gstBps(first.getMenuItem());
+        });
+        comboDiscounts[c] = sums[0];
+        comboGsts[c] = sums[1];
+        comboDiscountPaise += sums[0];
+        comboGstScaled += sums[1];
+    }
+
+    // Receives each run of discounted pairs, keyed by the line of the pair's first item
+    private interface ComboPairs {
+        void accept(OrderItem first, int pairs, long perPair);
+    }
 
-                default -> System.out.println("Invalid choice.");
+    // Pairs off the units of combo c's two items in line order
+    private void pairCombo(PricingPlan plan, int c, ComboPairs sink) {
+        List<OrderItem> firsts = linesByName.get(plan.comboFirst(c));
+        List<OrderItem> seconds = linesByName.get(plan.comboSecond(c));
+        if (firsts == null || seconds == null) return;
+        int f = 0;
+        int s = 0;
+        int firstLeft = firsts.get(0).getQuantity();
+        int secondLeft = seconds.get(0).getQuantity();
+        while (true) {
+            OrderItem first = firsts.get(f);
+            OrderItem second = seconds.get(s);
+            int pairs = Math.min(firstLeft, secondLeft);
+            long perPair = first.getPricePaise() + second.getPricePaise() - plan.comboPricePaise(c);
+            if (perPair > 0) sink.accept(first, pairs, perPair);
+            firstLeft -= pairs;
+            secondLeft -= pairs;
+            if (firstLeft == 0) {
+                if (++f == firsts.size()) break;
+                firstLeft = firsts.get(f).getQuantity();
             }
+            if (secondLeft == 0) {
+                if (++s == seconds.size()) break;
+                secondLeft = seconds.get(s).getQuantity();
+            }
+        }
+    }
+
+    private void updateTotals(PricingPlan plan) {
+        long taxable = grossPaise - Money.divideRounded(happyHourScaled, Money.BPS_SCALE) - comboDiscountPaise;
+        discountPaise = grossPaise - taxable;
+        serviceChargePaise = Money.applyRate(taxable, plan.serviceChargeBps());
+        gstPaise = Money.divideRounded(gstScaled - comboGstScaled, BPS_SQUARED);
+    }
+
+    // One pass over the lines under a new plan
+    private void reprice(PricingPlan plan) {
+        grossPaise = 0;
+        happyHourScaled = 0;
+        gstScaled = 0;
+        for (OrderItem line : orderItems.values()) {
+            addToTotals(line.getMenuItem(), line.getPricePaise(), line.getQuantity(), line.getHappyHourQuantity(), plan);
+        }
+        comboDiscountPaise = 0;
+        comboGstScaled = 0;
+        comboDiscounts = new long[plan.comboCount()];
+        comboGsts = new long[plan.comboCount()];
+        for (int c = 0; c < plan.comboCount(); c++) {
+            priceCombo(plan, c);
+        }
+        updateTotals(plan);
+        pricedWith = plan;
+    }
+
+    // Totals are only recomputed if the rules or the menu changed since the last update
+    private void ensurePriced() {
+        PricingPlan plan = pricing.plan();
+        if (plan != pricedWith) reprice(plan);
+    }
+
+    public synchronized boolean isEmpty() {
+        return orderItems.isEmpty();
+    }
+
+    public synchronized long getSubtotalPaise() { ensurePriced(); return grossPaise; }
+    public synchronized long getDiscountPaise() { ensurePriced(); return discountPaise; }
+    public synchronized long getServiceChargePaise() { ensurePriced(); return serviceChargePaise; }
+    public synchronized long getGstPaise() { ensurePriced(); return gstPaise; }
+
+    public synchronized long getGrandTotalPaise() {
+        ensurePriced();
+        return grossPaise - discountPaise + serviceChargePaise + gstPaise;
+    }
+
+    synchronized void close() {
+        closed = true;
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    // Point-in-time copy of the lines, used for snapshots
+    synchronized List<OrderItem> copyLines() {
+        List<OrderItem> copy = new ArrayList<>(orderItems.size());
+        for (OrderItem oi : orderItems.values()) {
+            copy.add(new OrderItem(oi.getMenuItem(), oi.getQuantity(), oi.getMenuVersion(), oi.getHappyHourQuantity()));
+        }
+        return copy;
+    }
+
+    public synchronized void generateBill() {
+        if (isEmpty()) {
+            System.out.println("No items in the order!");
+            return;
+        }
+        long start = System.nanoTime();
+        BillRenderer renderer = BillRenderer.forCurrentThread();
+        renderer.reset();
+        renderBill(renderer);
+        renderer.writeTo(System.out);
+        HotPaths.GENERATE_BILL.recordSince(start);
+    }
+
+    synchronized void renderBill(BillRenderer renderer) {
+        ensurePriced();
+        renderer.appendBill(tableNo, orderItems.values(), grossPaise, discountPaise, serviceChargePaise, gstPaise);
+    }
+
+    synchronized void recordSale(SalesHistory history, long timestampMillis) {
+        ensurePriced();
+        history.recordBill(timestampMillis, gstPaise, orderItems.values(), netLineAmounts());
+    }
+
+    // What each line sold for, in line order: its gross less its happy-hour
+    // units' discount and the discounts of the combo pairs it leads (the same
+    // attribution GST uses). Amounts stay in paise x bps until the end, and
+    // the rounding difference goes on the last line, so the lines add up to
+    // the bill's discounted subtotal.
+    private long[] netLineAmounts() {
+        PricingPlan plan = pricedWith;
+        Map<OrderItem, Integer> positions = new IdentityHashMap<>();
+        long[] scaled = new long[orderItems.size()];
+        int i = 0;
+        for (OrderItem line : orderItems.values()) {
+            positions.put(line, i);
+            scaled[i++] = line.getPricePaise() * (line.getQuantity() * Money.BPS_SCALE
+                    - (long) line.getHappyHourQuantity() * plan.happyHourBps(line.getMenuItem()));
+        }
+        for (int c = 0; c < plan.comboCount(); c++) {
+            pairCombo(plan, c, (first, pairs, perPair) -> scaled[positions.get(first)] -= pairs * perPair * Money.BPS_SCALE);
+        }
+        long[] net = new long[scaled.length];
+        long sum = 0;
+        for (i = 0; i < net.length; i++) {
+            net[i] = Money.divideRounded(scaled[i], Money.BPS_SCALE);
+            sum += net[i];
+        }
+        if (net.length > 0) net[net.length - 1] += grossPaise - discountPaise - sum;
+        return net;
+    }
+}
+
+// Formats bills into one reusable buffer and writes it out in a single call.
+// The fixed parts of the layout are precomputed constants; only the line
+// items and amounts are appended per bill. Not thread-safe: each thread
+// uses its own instance via forCurrentThread().
+class BillRenderer {
+    private static final String LS = System.lineSeparator();
+    private static final String HEADER = LS + "========== BILL ==========" + LS + "Table: ";
+    private static final String RULE = "--------------------------" + LS + "Subtotal: ₹";
+    private static final String DISCOUNT = LS + "Discounts: -₹";
+    private static final String SERVICE_CHARGE = LS + "Service charge: ₹";
+    private static final String GST = LS + "GST: ₹";
+    private static final String GRAND_TOTAL = LS + "Grand Total: ₹";
+    private static final String FOOTER = LS + "==========================" + LS;
+
+    private static final ThreadLocal<BillRenderer> PER_THREAD = ThreadLocal.withInitial(BillRenderer::new);
+
+    private final StringBuilder buffer = new StringBuilder(1024);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private ByteBuffer bytes = ByteBuffer.allocate(4096);
+
+    static BillRenderer forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    void reset() {
+        buffer.setLength(0);
+    }
+
+    CharSequence contents() {
+        return buffer;
+    }
+
+    void appendBill(int tableNo, Collection<OrderItem> lines, long subtotalPaise, long discountPaise,
+                    long serviceChargePaise, long gstPaise) {
+        buffer.append(HEADER).append(tableNo).append(LS);
+        for (OrderItem oi : lines) {
+            buffer.append(oi.getName()).append(" x ").append(oi.getQuantity()).append(" = ₹");
+            Money.appendTo(buffer, oi.getTotalPaise()).append(LS);
+        }
+        Money.appendTo(buffer.append(RULE), subtotalPaise);
+        if (discountPaise != 0) Money.appendTo(buffer.append(DISCOUNT), discountPaise);
+        if (serviceChargePaise != 0) Money.appendTo(buffer.append(SERVICE_CHARGE), serviceChargePaise);
+        Money.appendTo(buffer.append(GST), gstPaise);
+        Money.appendTo(buffer.append(GRAND_TOTAL), subtotalPaise - discountPaise + serviceChargePaise + gstPaise);
+        buffer.append(FOOTER);
+    }
+
+    // Appends every non-empty order into the buffer; returns how many bills were rendered
+    int renderAll(Iterable<Order> orders) {
+        int rendered = 0;
+        for (Order order : orders) {
+            if (order.isEmpty()) continue;
+            order.renderBill(this);
+            rendered++;
+        }
+        return rendered;
+    }
+
+    void writeTo(PrintStream out) {
+        out.print(buffer);
+    }
+
+    void writeTo(FileChannel channel) throws IOException {
+        encode();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    void writeTo(File file, boolean append) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, append)) {
+            writeTo(out.getChannel());
+        }
+    }
+
+    // Encodes the buffer as UTF-8 into the reusable byte buffer, growing it as needed
+    private void encode() {
+        CharBuffer chars = CharBuffer.wrap(buffer);
+        encoder.reset();
+        bytes.clear();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (result.isUnderflow()) result = encoder.flush(bytes);
+            if (result.isUnderflow()) break;
+            ByteBuffer bigger = ByteBuffer.allocate(bytes.capacity() * 2);
+            bytes.flip();
+            bytes = bigger.put(bytes);
+        }
+        bytes.flip();
+    }
+}
+
+// Holds every open order keyed by table number.
+// Lookups are lock-free (ConcurrentHashMap); mutations lock only the one table.
+class OrderEngine {
+    private final ConcurrentHashMap<Integer, Order> openOrders = new ConcurrentHashMap<>();
+    private final SalesHistory salesHistory = new SalesHistory();
+    private final KitchenBoard kitchen = new KitchenBoard(new KitchenQueue(KitchenQueue.DEFAULT_CAPACITY));
+    private final PricingRules pricing;
+    private OrderJournal journal;
+    private Lock updateLock = new ReentrantReadWriteLock().readLock();
+
+    public OrderEngine() {
+        this(PricingRules.DEFAULT);
+    }
+
+    public OrderEngine(PricingRules pricing) {
+        this.pricing = pricing;
+    }
+
+    public PricingRules getPricing() {
+        return pricing;
+    }
+
+    private Order newOrder(int tableNo) {
+        return new Order(tableNo, pricing);
+    }
+
+    void attachJournal(OrderJournal journal) {
+        this.journal = journal;
+        this.updateLock = journal.updateLock();
+    }
+
+    // Changes are journaled while the table's lock is held, so the journal
+    // sees each table's changes in the order they were applied. The fsync
+    // wait happens after every lock is released.
+    public void addOrderItem(int tableNo, OrderItem orderItem) {
+        long start = System.nanoTime();
+        LocalTime now = LocalTime.now();
+        orderItem.markHappyHour(pricing.plan().isHappyHour(orderItem.getMenuItem(), now.getHour() * 60 + now.getMinute()));
+        long seq = 0;
+        KitchenTicket ticket;
+        updateLock.lock();
+        try {
+            while (true) {
+                Order order = openOrders.computeIfAbsent(tableNo, this::newOrder);
+                synchronized (order) {
+                    if (order.addOrderItem(orderItem)) {
+                        if (journal != null) seq = journal.logOrderAdd(tableNo, orderItem);
+                        // the units just ordered, not the merged line
+                        ticket = new KitchenTicket(tableNo, orderItem.getName(), orderItem.getQuantity(),
+                                System.currentTimeMillis());
+                        break;
+                    }
+                }
+                // table was closed concurrently, drop the stale entry and retry
+                openOrders.remove(tableNo, order);
+            }
+        } finally {
+            updateLock.unlock();
+        }
+        commit(seq);
+        kitchen.getQueue().publish(ticket);
+        HotPaths.ADD_ORDER_ITEM.recordSince(start);
+    }
+
+    public int removeOrderItem(int tableNo, int itemId, int quantity) {
+        Order order = openOrders.get(tableNo);
+        if (order == null) return 0;
+        int removed;
+        long seq = 0;
+        updateLock.lock();
+        try {
+            synchronized (order) {
+                removed = order.removeOrderItem(itemId, quantity);
+                if (removed > 0 && journal != null) seq = journal.logOrderRemove(tableNo, itemId, removed);
+            }
+        } finally {
+            updateLock.unlock();
+        }
+        commit(seq);
+        return removed;
+    }
+
+    public boolean generateBill(int tableNo) {
+        Order order = openOrders.get(tableNo);
+        if (order == null) return false;
+        order.generateBill();
+        return true;
+    }
+
+    // Finalises the table's bill: the order is closed and leaves the open set
+    public Order closeOrder(int tableNo) {
+        Order order = openOrders.get(tableNo);
+        if (order == null) return null;
+        long seq = 0;
+        updateLock.lock();
+        try {
+            synchronized (order) {
+                if (order.isClosed()) return null;
+                order.close();
+                order.recordSale(salesHistory, System.currentTimeMillis());
+                if (journal != null) seq = journal.logOrderClose(tableNo);
+                openOrders.remove(tableNo, order);
+            }
+        } finally {
+            updateLock.unlock();
+        }
+        commit(seq);
+        return order;
+    }
+
+    private void commit(long seq) {
+        if (journal != null && seq > 0) journal.commit(seq);
+    }
+
+    // Replay hooks: apply a change without journaling it again
+    void restoreOrderItem(int tableNo, OrderItem orderItem) {
+        openOrders.computeIfAbsent(tableNo, this::newOrder).addOrderItem(orderItem);
+    }
+
+    void restoreRemove(int tableNo, int itemId, int quantity) {
+        Order order = openOrders.get(tableNo);
+        if (order != null) order.removeOrderItem(itemId, quantity);
+    }
+
+    void restoreClose(int tableNo) {
+        Order order = openOrders.remove(tableNo);
+        if (order != null) order.close();
+    }
+
+    Collection<Order> openOrders() {
+        return openOrders.values();
+    }
+
+    public SalesHistory getSalesHistory() {
+        return salesHistory;
+    }
+
+    public KitchenBoard getKitchen() {
+        return kitchen;
+    }
+
+    // Renders the bills of all open tables into one buffer and writes them with a single bulk write
+    public int writeAllBills(File file) throws IOException {
+        BillRenderer renderer = BillRenderer.forCurrentThread();
+        renderer.reset();
+        int rendered = renderer.renderAll(openOrders.values());
+        if (rendered > 0) renderer.writeTo(file, true);
+        return rendered;
+    }
+
+    public Set<Integer> openTables() {
+        return new TreeSet<>(openOrders.keySet());
+    }
+}
+
+// Durable write-ahead journal for menu and order changes.
+// Every change is appended as a binary record framed by its length and a
+// CRC32. Callers append under the checkpoint read lock and wait for the
+// fsync afterwards; the first waiter to arrive forces the file on behalf of
+// everyone queued behind it (group commit). Every CHECKPOINT_INTERVAL
+// records the menu and all open orders are snapshotted and the journal
+// starts a new generation, which keeps replay time bounded.
+class OrderJournal implements Closeable {
+    static final int CHECKPOINT_INTERVAL = 10_000;
+
+    private static final int JOURNAL_MAGIC = 0x524A4E33; // "RJN3"
+    private static final int SNAPSHOT_MAGIC = 0x52534E33; // "RSN3"
+    // Version 2 files have no menu versions; they are read with version 0
+    // and rewritten in the current format by a checkpoint when opened
+    private static final int JOURNAL_MAGIC_V2 = 0x524A4E32; // "RJN2"
+    private static final int SNAPSHOT_MAGIC_V2 = 0x52534E32; // "RSN2"
+    private static final int HEADER_BYTES = 12; // magic + generation
+    private static final int FRAME_BYTES = 8; // length + crc
+
+    private static final byte MENU_ADD = 1;
+    private static final byte MENU_REMOVE = 2;
+    private static final byte ORDER_ADD = 3;
+    private static final byte ORDER_REMOVE = 4;
+    private static final byte ORDER_CLOSE = 5;
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private final File journalFile;
+    private final File snapshotFile;
+    private final Menu menu;
+    private final OrderEngine engine;
+    private final FileChannel channel;
+    private MenuSnapshot.Builder recoveredMenu; // menu changes read during open()
+    private long recoveredMenuVersion;
+    private boolean legacyFormat; // the journal being replayed is version 2
+
+    // Updates hold the read lock; a checkpoint takes the write lock
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean checkpointing = new AtomicBoolean();
+
+    // Guards the channel position and the sequence counters below
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition synced = commitLock.newCondition();
+    private long generation;
+    private long writtenSeq;
+    private long durableSeq;
+    private boolean syncing;
+    private int sinceCheckpoint;
+
+    private OrderJournal(File journalFile, File snapshotFile, Menu menu, OrderEngine engine) throws IOException {
+        this.journalFile = journalFile;
+        this.snapshotFile = snapshotFile;
+        this.menu = menu;
+        this.engine = engine;
+        this.channel = FileChannel.open(journalFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Rebuilds the menu and open orders from the last snapshot plus the journal,
+    // then attaches the journal so that further changes are recorded.
+    static OrderJournal open(File journalFile, File snapshotFile, Menu menu, OrderEngine engine) throws IOException {
+        OrderJournal journal = new OrderJournal(journalFile, snapshotFile, menu, engine);
+        try {
+            journal.recoveredMenu = menu.snapshot().edit();
+            long snapshotGeneration = snapshotFile.exists() ? journal.loadSnapshot() : 0;
+            journal.replay(snapshotGeneration);
+            // the menu is published once, not once per recovered item
+            menu.restore(journal.recoveredMenu, journal.recoveredMenuVersion);
+            journal.recoveredMenu = null;
+            if (journal.legacyFormat) journal.checkpoint(); // new records must not follow old ones
+        } catch (IOException | RuntimeException e) {
+            journal.channel.close();
+            throw e;
+        }
+        menu.attachJournal(journal);
+        engine.attachJournal(journal);
+        return journal;
+    }
+
+    Lock updateLock() {
+        return checkpointLock.readLock();
+    }
+
+    // menuVersion is the version of the menu with the change applied
+    long logMenuAdd(MenuItem item, long menuVersion) {
+        return append(out -> {
+            out.writeByte(MENU_ADD);
+            writeItem(out, item);
+            out.writeLong(menuVersion);
+        });
+    }
+
+    long logMenuRemove(int itemId, long menuVersion) {
+        return append(out -> {
+            out.writeByte(MENU_REMOVE);
+            out.writeInt(itemId);
+            out.writeLong(menuVersion);
+        });
+    }
+
+    long logOrderAdd(int tableNo, OrderItem orderItem) {
+        return append(out -> {
+            out.writeByte(ORDER_ADD);
+            out.writeInt(tableNo);
+            writeLine(out, orderItem);
+        });
+    }
+
+    long logOrderRemove(int tableNo, int itemId, int quantity) {
+        return append(out -> {
+            out.writeByte(ORDER_REMOVE);
+            out.writeInt(tableNo);
+            out.writeInt(itemId);
+            out.writeInt(quantity);
+        });
+    }
+
+    long logOrderClose(int tableNo) {
+        return append(out -> {
+            out.writeByte(ORDER_CLOSE);
+            out.writeInt(tableNo);
+        });
+    }
+
+    private static void writeItem(DataOutputStream out, MenuItem item) throws IOException {
+        out.writeInt(item.getId());
+        out.writeUTF(item.getName());
+        out.writeLong(item.getPricePaise());
+        out.writeUTF(item.getCategory());
+    }
+
+    private static MenuItem readItem(DataInputStream in) throws IOException {
+        return new MenuItem(in.readInt(), in.readUTF(), in.readLong(), in.readUTF());
+    }
+
+    private static void writeLine(DataOutputStream out, OrderItem line) throws IOException {
+        writeItem(out, line.getMenuItem());
+        out.writeInt(line.getQuantity());
+        out.writeInt(line.getHappyHourQuantity());
+        out.writeLong(line.getMenuVersion());
+    }
+
+    private static OrderItem readLine(DataInputStream in, boolean legacy) throws IOException {
+        MenuItem item = readItem(in);
+        int quantity = in.readInt();
+        int happyHourQuantity = in.readInt();
+        return new OrderItem(item, quantity, legacy ? 0 : in.readLong(), happyHourQuantity);
+    }
+
+    // Writes one framed record and returns its sequence number (not yet durable)
+    private long append(RecordWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(0); // frame header, filled in below
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), FRAME_BYTES, frame.capacity() - FRAME_BYTES);
+        frame.putInt(0, frame.capacity() - FRAME_BYTES).putInt(4, (int) crc.getValue());
+
+        commitLock.lock();
+        try {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+            sinceCheckpoint++;
+            return ++writtenSeq;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Blocks until record seq is on disk. Only one thread fsyncs at a time;
+    // its force covers every record written before it started.
+    void commit(long seq) {
+        commitLock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                long target = writtenSeq;
+                IOException failure = null;
+                commitLock.unlock();
+                try {
+                    channel.force(false);
+                } catch (IOException e) {
+                    failure = e;
+                } finally {
+                    commitLock.lock();
+                    syncing = false;
+                    if (failure == null) durableSeq = Math.max(durableSeq, target);
+                    synced.signalAll();
+                }
+                if (failure != null) throw new UncheckedIOException(failure);
+            }
+        } finally {
+            commitLock.unlock();
+        }
+        maybeCheckpoint();
+    }
+
+    private void maybeCheckpoint() {
+        if (sinceCheckpointCount() < CHECKPOINT_INTERVAL || !checkpointing.compareAndSet(false, true)) return;
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            checkpointing.set(false);
+        }
+    }
+
+    private int sinceCheckpointCount() {
+        commitLock.lock();
+        try {
+            return sinceCheckpoint;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Writes the menu and open orders to a temp file, fsyncs it, renames it
+    // over the old snapshot and then restarts the journal at the next generation.
+    void checkpoint() throws IOException {
+        checkpointLock.writeLock().lock();
+        try {
+            File tmp = new File(snapshotFile.getPath() + ".tmp");
+            try (FileOutputStream fos = new FileOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(generation);
+                MenuSnapshot menuSnapshot = menu.snapshot();
+                out.writeInt(menuSnapshot.getNextId());
+                out.writeLong(menuSnapshot.getVersion());
+                out.writeInt(menuSnapshot.getItems().size());
+                for (MenuItem item : menuSnapshot.getItems()) {
+                    writeItem(out, item);
+                }
+                Collection<Order> orders = engine.openOrders();
+                out.writeInt(orders.size());
+                for (Order order : orders) {
+                    List<OrderItem> lines = order.copyLines();
+                    out.writeInt(order.getTableNo());
+                    out.writeInt(lines.size());
+                    for (OrderItem oi : lines) {
+                        writeLine(out, oi);
+                    }
+                }
+                out.flush();
+                fos.getFD().sync();
+            }
+            Files.move(tmp.toPath(), snapshotFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            startGeneration(generation + 1);
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    // Empties the journal and stamps it with a new generation. Everything
+    // written so far is covered by the snapshot, so it counts as durable.
+    private void startGeneration(long newGeneration) throws IOException {
+        commitLock.lock();
+        try {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(JOURNAL_MAGIC).putLong(newGeneration);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.position(HEADER_BYTES);
+            channel.force(true);
+            generation = newGeneration;
+            durableSeq = writtenSeq;
+            sinceCheckpoint = 0;
+            synced.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Returns the journal generation the snapshot already includes
+    private long loadSnapshot() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            int magic = in.readInt();
+            if (magic != SNAPSHOT_MAGIC && magic != SNAPSHOT_MAGIC_V2) {
+                throw new IOException("Not an order snapshot: " + snapshotFile);
+            }
+            boolean legacy = magic == SNAPSHOT_MAGIC_V2;
+            long snapshotGeneration = in.readLong();
+            recoveredMenu.nextId(in.readInt());
+            if (!legacy) recoveredMenuVersion = in.readLong();
+            int itemCount = in.readInt();
+            for (int i = 0; i < itemCount; i++) {
+                recoveredMenu.put(readItem(in));
+            }
+            int orderCount = in.readInt();
+            for (int i = 0; i < orderCount; i++) {
+                int tableNo = in.readInt();
+                int lineCount = in.readInt();
+                for (int j = 0; j < lineCount; j++) {
+                    engine.restoreOrderItem(tableNo, readLine(in, legacy));
+                }
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    // Applies every intact record after the snapshot and cuts off a torn tail
+    private void replay(long snapshotGeneration) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_BYTES) {
+            startGeneration(snapshotGeneration + 1);
+            return;
+        }
+        long validEnd = HEADER_BYTES;
+        int replayed = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            int magic = in.readInt();
+            if (magic != JOURNAL_MAGIC && magic != JOURNAL_MAGIC_V2) {
+                throw new IOException("Not an order journal: " + journalFile);
+            }
+            long journalGeneration = in.readLong();
+            if (journalGeneration <= snapshotGeneration) {
+                // crashed after the snapshot rename but before the journal was reset
+                startGeneration(snapshotGeneration + 1);
+                return;
+            }
+            generation = journalGeneration;
+            legacyFormat = magic == JOURNAL_MAGIC_V2;
+            CRC32 crc = new CRC32();
+            while (size - validEnd >= FRAME_BYTES) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > size - validEnd - FRAME_BYTES) break;
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) break;
+                apply(payload);
+                validEnd += FRAME_BYTES + length;
+                replayed++;
+            }
+        }
+        channel.truncate(validEnd);
+        channel.position(validEnd);
+        sinceCheckpoint = replayed;
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        switch (type) {
+            case MENU_ADD -> {
+                recoveredMenu.put(readItem(in));
+                if (!legacyFormat) recoveredMenuVersion = in.readLong();
+            }
+            case MENU_REMOVE -> {
+                recoveredMenu.remove(in.readInt());
+                if (!legacyFormat) recoveredMenuVersion = in.readLong();
+            }
+            case ORDER_ADD -> {
+                int tableNo = in.readInt();
+                engine.restoreOrderItem(tableNo, readLine(in, legacyFormat));
+            }
+            case ORDER_REMOVE -> engine.restoreRemove(in.readInt(), in.readInt(), in.readInt());
+            case ORDER_CLOSE -> engine.restoreClose(in.readInt());
+            default -> throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
+
+// A request for the kitchen to prepare one order line
+class KitchenTicket {
+    private final int tableNo;
+    private final String itemName;
+    private final int quantity;
+    private final long placedAtMillis;
+
+    public KitchenTicket(int tableNo, String itemName, int quantity, long placedAtMillis) {
+        this.tableNo = tableNo;
+        this.itemName = itemName;
+        this.quantity = quantity;
+        this.placedAtMillis = placedAtMillis;
+    }
+
+    public int getTableNo() { return tableNo; }
+    public String getItemName() { return itemName; }
+    public int getQuantity() { return quantity; }
+    public long getPlacedAtMillis() { return placedAtMillis; }
+}
+
+// Lock-free bounded ring buffer carrying tickets from order placement to
+// the kitchen. Any number of waiters publish and any number of consumers
+// drain; every slot carries a sequence number that says whose
+// turn it is, so neither side ever takes a lock.
+// Memory stays bounded and no ticket is lost: when the ring is full a
+// waiter waits for a free slot instead. The kitchen pass (KitchenBoard)
+// keeps the ring drained, so that only happens if the pass falls behind.
+class KitchenQueue {
+    static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final int FULL_SPINS = 64;
+    private static final long FULL_PARK_NANOS = 20_000;
+
+    private final int mask;
+    private final KitchenTicket[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder fullWaits = new LongAdder();
+    private final LongAdder drained = new LongAdder();
+    private final LongAccumulator highWaterMark = new LongAccumulator(Long::max, 0);
+
+    KitchenQueue(int capacity) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("Capacity must be a power of two");
+        mask = capacity - 1;
+        slots = new KitchenTicket[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) sequences.set(i, i);
+    }
+
+    // Waits while the ring is full: spins briefly, then parks so the
+    // consumer gets the CPU
+    public void publish(KitchenTicket ticket) {
+        if (!offer(ticket)) {
+            fullWaits.increment();
+            for (int spins = 0; !offer(ticket); spins++) {
+                if (spins < FULL_SPINS) Thread.onSpinWait();
+                else LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+        published.increment();
+        highWaterMark.accumulate(depth());
+    }
+
+    // Returns false instead of waiting if the ring is full
+    public boolean tryPublish(KitchenTicket ticket) {
+        if (!offer(ticket)) return false;
+        published.increment();
+        highWaterMark.accumulate(depth());
+        return true;
+    }
+
+    private boolean offer(KitchenTicket ticket) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[index] = ticket;
+                    sequences.set(index, pos + 1); // hand the slot to consumers
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // ring is full
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    private KitchenTicket poll() {
+        long pos = head.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    KitchenTicket ticket = slots[index];
+                    slots[index] = null;
+                    sequences.set(index, pos + mask + 1); // hand the slot back to producers
+                    return ticket;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null; // ring is empty
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    // Moves up to max tickets into batch, oldest first; returns how many were taken
+    public int drainTo(List<KitchenTicket> batch, int max) {
+        int taken = 0;
+        KitchenTicket ticket;
+        while (taken < max && (ticket = poll()) != null) {
+            batch.add(ticket);
+            taken++;
+        }
+        drained.add(taken);
+        return taken;
+    }
+
+    public long depth() {
+        return Math.max(0, tail.get() - head.get());
+    }
+
+    public long getPublished() { return published.sum(); }
+    public long getFullWaits() { return fullWaits.sum(); }
+    public long getDrained() { return drained.sum(); }
+    public long getHighWaterMark() { return highWaterMark.get(); }
+    public int getCapacity() { return mask + 1; }
+}
+
+// The kitchen pass: one daemon thread moves tickets off the ring as they
+// arrive and holds them until a kitchen display takes them. Displays run
+// at human pace on the menu thread, so they cannot be the ring's consumer
+// without stalling the waiters publishing on that same thread.
+class KitchenBoard {
+    private static final int PASS_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private final KitchenQueue queue;
+    private final ArrayDeque<KitchenTicket> pending = new ArrayDeque<>();
+    private final List<KitchenTicket> moving = new ArrayList<>(PASS_BATCH);
+
+    KitchenBoard(KitchenQueue queue) {
+        this.queue = queue;
+        Thread pass = new Thread(this::runPass, "kitchen-pass");
+        pass.setDaemon(true);
+        pass.start();
+    }
+
+    private void runPass() {
+        while (true) {
+            int moved;
+            synchronized (this) {
+                moved = moveFromRing();
+            }
+            if (moved == 0) LockSupport.parkNanos(IDLE_PARK_NANOS); // a ticket waits at most this long
+        }
+    }
+
+    // Called with the lock held, so pending() never sees a batch that is on neither side
+    private int moveFromRing() {
+        moving.clear();
+        int moved = queue.drainTo(moving, PASS_BATCH);
+        pending.addAll(moving);
+        return moved;
+    }
+
+    // Moves up to max tickets into batch, oldest first; returns how many were taken
+    public synchronized int take(List<KitchenTicket> batch, int max) {
+        // catch up with the ring first, in case the pass is parked
+        while (moveFromRing() == PASS_BATCH) { }
+        int taken = 0;
+        while (taken < max && !pending.isEmpty()) {
+            batch.add(pending.poll());
+            taken++;
+        }
+        return taken;
+    }
+
+    // Tickets not yet taken by a display, including those still on the ring
+    public synchronized long pending() {
+        return pending.size() + queue.depth();
+    }
+
+    public KitchenQueue getQueue() {
+        return queue;
+    }
+}
+
+// History of finalised bills, stored column-wise in primitive arrays:
+// one entry per bill line (item id, quantity, net amount after discounts,
+// timestamp) plus one entry per bill for the GST charged. A month of history is a handful of
+// flat arrays rather than millions of objects, and the analytics below
+// aggregate over them in parallel with fork/join.
+class SalesHistory {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] lineItemIds = new int[INITIAL_CAPACITY];
+    private int[] lineQuantities = new int[INITIAL_CAPACITY];
+    private long[] lineAmounts = new long[INITIAL_CAPACITY];
+    private long[] lineTimestamps = new long[INITIAL_CAPACITY];
+    private int lineCount;
+
+    private long[] billTimestamps = new long[INITIAL_CAPACITY];
+    private long[] billGst = new long[INITIAL_CAPACITY];
+    private int billCount;
+
+    // Item names are kept so reports still work after an item leaves the menu
+    private final Map<Integer, String> itemNames = new HashMap<>();
+
+    // netPaise holds each line's amount after discounts, in the order of lines
+    synchronized void recordBill(long timestampMillis, long gstPaise, Collection<OrderItem> lines, long[] netPaise) {
+        if (billCount == billTimestamps.length) {
+            billTimestamps = Arrays.copyOf(billTimestamps, billCount * 2);
+            billGst = Arrays.copyOf(billGst, billCount * 2);
+        }
+        billTimestamps[billCount] = timestampMillis;
+        billGst[billCount] = gstPaise;
+        billCount++;
+
+        int i = 0;
+        for (OrderItem oi : lines) {
+            if (lineCount == lineItemIds.length) {
+                int capacity = lineCount * 2;
+                lineItemIds = Arrays.copyOf(lineItemIds, capacity);
+                lineQuantities = Arrays.copyOf(lineQuantities, capacity);
+                lineAmounts = Arrays.copyOf(lineAmounts, capacity);
+                lineTimestamps = Arrays.copyOf(lineTimestamps, capacity);
+            }
+            lineItemIds[lineCount] = oi.getItemId();
+            lineQuantities[lineCount] = oi.getQuantity();
+            lineAmounts[lineCount] = netPaise[i++];
+            lineTimestamps[lineCount] = timestampMillis;
+            lineCount++;
+            itemNames.putIfAbsent(oi.getItemId(), oi.getName());
+        }
+    }
+
+    // Immutable view of the columns at one point in time. Arrays are only
+    // ever appended to or replaced, so the captured prefix never changes.
+    synchronized Columns columns() {
+        return new Columns(lineItemIds, lineQuantities, lineAmounts, lineTimestamps, lineCount,
+                billTimestamps, billGst, billCount, new HashMap<>(itemNames));
+    }
+
+    static final class Columns {
+        final int[] itemIds;
+        final int[] quantities;
+        final long[] amounts;
+        final long[] timestamps;
+        final int lines;
+        final long[] billTimestamps;
+        final long[] billGst;
+        final int bills;
+        final Map<Integer, String> itemNames;
+
+        Columns(int[] itemIds, int[] quantities, long[] amounts, long[] timestamps, int lines,
+                long[] billTimestamps, long[] billGst, int bills, Map<Integer, String> itemNames) {
+            this.itemIds = itemIds;
+            this.quantities = quantities;
+            this.amounts = amounts;
+            this.timestamps = timestamps;
+            this.lines = lines;
+            this.billTimestamps = billTimestamps;
+            this.billGst = billGst;
+            this.bills = bills;
+            this.itemNames = itemNames;
+        }
+    }
+
+    // Aggregate of the lines in [from, to): revenue and units per item id
+    // and revenue per hour of day
+    static final class Summary {
+        final long[] revenueByItem;
+        final long[] unitsByItem;
+        final long[] revenueByHour = new long[24];
+        long lineCount;
+
+        Summary(int itemSlots) {
+            revenueByItem = new long[itemSlots];
+            unitsByItem = new long[itemSlots];
+        }
+
+        Summary merge(Summary other) {
+            for (int i = 0; i < revenueByItem.length; i++) {
+                revenueByItem[i] += other.revenueByItem[i];
+                unitsByItem[i] += other.unitsByItem[i];
+            }
+            for (int h = 0; h < 24; h++) revenueByHour[h] += other.revenueByHour[h];
+            lineCount += other.lineCount;
+            return this;
+        }
+    }
+
+    private static final class SummaryTask extends RecursiveTask<Summary> {
+        private static final long serialVersionUID = 1L;
+        private static final int SEQUENTIAL_THRESHOLD = 64 * 1024;
+
+        private final Columns columns;
+        private final int start;
+        private final int end;
+        private final int itemSlots;
+        private final long fromMillis;
+        private final long toMillis;
+        private final ZoneOffsets zoneOffsets;
+
+        SummaryTask(Columns columns, int start, int end, int itemSlots, long fromMillis, long toMillis, ZoneOffsets zoneOffsets) {
+            this.columns = columns;
+            this.start = start;
+            this.end = end;
+            this.itemSlots = itemSlots;
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.zoneOffsets = zoneOffsets;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (end - start <= SEQUENTIAL_THRESHOLD) {
+                Summary summary = new Summary(itemSlots);
+                for (int i = start; i < end; i++) {
+                    long ts = columns.timestamps[i];
+                    if (ts < fromMillis || ts >= toMillis) continue;
+                    long amount = columns.amounts[i];
+                    summary.revenueByItem[columns.itemIds[i]] += amount;
+                    summary.unitsByItem[columns.itemIds[i]] += columns.quantities[i];
+                    summary.revenueByHour[(int) (((ts + zoneOffsets.offsetAt(ts)) / 3_600_000L) % 24)] += amount;
+                    summary.lineCount++;
+                }
+                return summary;
+            }
+            int mid = (start + end) >>> 1;
+            SummaryTask left = new SummaryTask(columns, start, mid, itemSlots, fromMillis, toMillis, zoneOffsets);
+            left.fork();
+            Summary right = new SummaryTask(columns, mid, end, itemSlots, fromMillis, toMillis, zoneOffsets).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    // The zone's UTC offsets over [from, to): offsetMillis[i] applies from
+    // startsAt[i]. A day has at most a couple of DST transitions, so each
+    // line finds its offset with a short scan instead of a ZoneRules lookup.
+    static final class ZoneOffsets {
+        private final long[] startsAt;
+        private final long[] offsetMillis;
+
+        private ZoneOffsets(long[] startsAt, long[] offsetMillis) {
+            this.startsAt = startsAt;
+            this.offsetMillis = offsetMillis;
+        }
+
+        static ZoneOffsets of(ZoneId zone, long fromMillis, long toMillis) {
+            ZoneRules rules = zone.getRules();
+            List<ZoneOffsetTransition> transitions = new ArrayList<>();
+            ZoneOffsetTransition t = rules.nextTransition(Instant.ofEpochMilli(fromMillis));
+            while (t != null && t.toEpochSecond() * 1000L < toMillis) {
+                transitions.add(t);
+                t = rules.nextTransition(t.getInstant());
+            }
+            long[] startsAt = new long[transitions.size() + 1];
+            long[] offsets = new long[startsAt.length];
+            startsAt[0] = Long.MIN_VALUE;
+            offsets[0] = rules.getOffset(Instant.ofEpochMilli(fromMillis)).getTotalSeconds() * 1000L;
+            for (int i = 0; i < transitions.size(); i++) {
+                startsAt[i + 1] = transitions.get(i).toEpochSecond() * 1000L;
+                offsets[i + 1] = transitions.get(i).getOffsetAfter().getTotalSeconds() * 1000L;
+            }
+            return new ZoneOffsets(startsAt, offsets);
+        }
+
+        long offsetAt(long millis) {
+            int i = startsAt.length - 1;
+            while (millis < startsAt[i]) i--;
+            return offsetMillis[i];
+        }
+    }
+
+    static Summary summarise(Columns columns, long fromMillis, long toMillis, ZoneOffsets zoneOffsets) {
+        int maxId = 0;
+        for (int id : columns.itemNames.keySet()) maxId = Math.max(maxId, id);
+        return ForkJoinPool.commonPool().invoke(
+                new SummaryTask(columns, 0, columns.lines, maxId + 1, fromMillis, toMillis, zoneOffsets));
+    }
+
+    static long gstCollected(Columns columns, long fromMillis, long toMillis) {
+        return IntStream.range(0, columns.bills).parallel()
+                .filter(i -> columns.billTimestamps[i] >= fromMillis && columns.billTimestamps[i] < toMillis)
+                .mapToLong(i -> columns.billGst[i])
+                .sum();
+    }
+
+    // Prints today's top items by revenue, sales per hour and GST collected
+    void printDailyReport(int topN) {
+        Columns columns = columns();
+        ZoneId zone = ZoneId.systemDefault();
+        long from = LocalDate.now(zone).atStartOfDay(zone).toInstant().toEpochMilli();
+        long to = LocalDate.now(zone).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        Summary summary = summarise(columns, from, to, ZoneOffsets.of(zone, from, to));
+        long gst = gstCollected(columns, from, to);
+        long bills = IntStream.range(0, columns.bills).parallel()
+                .filter(i -> columns.billTimestamps[i] >= from && columns.billTimestamps[i] < to)
+                .count();
+
+        System.out.println("\n====== SALES REPORT (" + LocalDate.now(zone) + ") ======");
+        if (bills == 0) {
+            System.out.println("No bills finalised today.");
+            return;
+        }
+        System.out.println("Bills: " + bills + ", line items: " + summary.lineCount);
+
+        System.out.println("--- Top items by revenue ---");
+        Integer[] ids = new Integer[summary.revenueByItem.length];
+        for (int i = 0; i < ids.length; i++) ids[i] = i;
+        Arrays.sort(ids, (a, b) -> Long.compare(summary.revenueByItem[b], summary.revenueByItem[a]));
+        for (int i = 0; i < Math.min(topN, ids.length) && summary.revenueByItem[ids[i]] > 0; i++) {
+            int id = ids[i];
+            System.out.println((i + 1) + ". " + columns.itemNames.get(id) + " x " + summary.unitsByItem[id]
+                    + " = ₹" + Money.format(summary.revenueByItem[id]));
+        }
+
+        System.out.println("--- Sales per hour ---");
+        for (int h = 0; h < 24; h++) {
+            if (summary.revenueByHour[h] == 0) continue;
+            System.out.println(String.format("%02d:00", h) + "  ₹" + Money.format(summary.revenueByHour[h]));
+        }
+
+        System.out.println("GST collected: ₹" + Money.format(gst));
+    }
+}
+
+// Latency stats for the billing hot paths. Shown by the Stats menu option
+// and published over JMX as RestaurantBillingSystem:type=HotPathStats.
+// addOrderItem is timed in OrderEngine so it includes the journal fsync.
+final class HotPaths {
+    static final LatencyStats ADD_ORDER_ITEM = new LatencyStats("addOrderItem");
+    static final LatencyStats GENERATE_BILL = new LatencyStats("generateBill");
+    static final HotPathStats STATS = new HotPathStats("RestaurantBillingSystem", ADD_ORDER_ITEM, GENERATE_BILL);
+
+    private HotPaths() { }
+}
+
+// Line-oriented command input. Whole lines are read through a BufferedReader
+// and numbers parsed with Integer.parseInt, which is far cheaper than
+// Scanner's regex tokenizer when thousands of commands are piped in.
+// In batch mode prompts are not printed, and a bad number stops the run:
+// asking again would take the script's next lines as the answer and put
+// every later command out of step.
+class LineInput {
+    private final BufferedReader reader;
+    private final boolean interactive;
+    private String pending;
+    private int lineNumber;
+
+    private LineInput(BufferedReader reader, boolean interactive) {
+        this.reader = reader;
+        this.interactive = interactive;
+    }
+
+    static LineInput fromStdin(boolean interactive) {
+        return new LineInput(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16),
+                interactive);
+    }
+
+    static LineInput fromFile(File file) throws IOException {
+        return new LineInput(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8), false);
+    }
+
+    boolean isInteractive() {
+        return interactive;
+    }
+
+    int lineNumber() {
+        return lineNumber;
+    }
+
+    void prompt(String text) {
+        if (interactive) System.out.print(text);
+    }
+
+    boolean hasNextLine() {
+        if (pending == null) {
+            try {
+                pending = reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return pending != null;
+    }
+
+    // Next trimmed line; throws NoSuchElementException at end of input like Scanner
+    String nextLine() {
+        if (!hasNextLine()) throw new NoSuchElementException("No more input");
+        String line = pending.trim();
+        pending = null;
+        lineNumber++;
+        return line;
+    }
+
+    // Interactive input asks again; batch input throws InputMismatchException
+    int nextInt() {
+        while (true) {
+            String line = nextLine();
+            try {
+                return Integer.parseInt(line);
+            } catch (NumberFormatException e) {
+                if (!interactive) {
+                    throw new InputMismatchException("line " + lineNumber + ": expected a number but got '" + line + "'");
+                }
+                System.out.println("Please enter a valid number.");
+            }
+        }
+    }
+}
+
+// Main class
+public class RestaurantBillingSystem {
+    public static void main(String[] args) {
+        // --batch [file]: replay commands from a file (or piped stdin) without
+        // menu redraws, with output buffered and written out in large blocks
+        boolean batch = args.length > 0 && args[0].equals("--batch");
+        LineInput sc;
+        try {
+            sc = batch && args.length > 1 ? LineInput.fromFile(new File(args[1])) : LineInput.fromStdin(!batch);
+        } catch (IOException e) {
+            System.out.println("Error opening command file: " + e.getMessage());
+            return;
+        }
+        if (batch) {
+            System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16),
+                    false, StandardCharsets.UTF_8));
+        }
+        boolean completed;
+        try {
+            completed = run(sc);
+        } finally {
+            System.out.flush();
+        }
+        if (!completed) System.exit(1);
+    }
+
+    private static final int KITCHEN_BATCH = 20;
+    private static final String PRICING_RULES_FILE = "pricing-rules.txt";
+    private static final String OPEN_BILLS_FILE = "open-bills.txt";
+
+    // Returns false if the run stopped on an error
+    private static boolean run(LineInput sc) {
+        HotPaths.STATS.register();
+        Menu menu = new Menu();
+        PricingRules pricing = new PricingRules();
+        loadPricingRules(pricing);
+        OrderEngine orders = new OrderEngine(pricing);
+        OrderJournal journal;
+        try {
+            journal = OrderJournal.open(new File("orders.journal"), new File("orders.snapshot"), menu, orders);
+        } catch (IOException e) {
+            System.out.println("Error opening order journal: " + e.getMessage());
+            return false;
+        }
+        if (!orders.openTables().isEmpty()) {
+            System.out.println("Recovered open tables: " + orders.openTables());
+        }
+
+        while (true) {
+            if (sc.isInteractive()) {
+                System.out.println("\n===== Restaurant Billing System =====");
+                System.out.println("1. Add Menu Item");
+                System.out.println("2. Remove Menu Item");
+                System.out.println("3. Show Menu");
+                System.out.println("4. Place Order");
+                System.out.println("5. Generate Bill");
+                System.out.println("6. Exit");
+                System.out.println("7. Close Table");
+                System.out.println("8. Remove Order Item");
+                System.out.println("9. Sales Report");
+                System.out.println("10. Hot-path Stats");
+                System.out.println("11. Kitchen Display");
+                System.out.println("12. Reload Pricing Rules");
+                System.out.println("13. Print All Open Bills to File");
+                System.out.print("Enter choice: ");
+            }
+            if (!sc.hasNextLine()) {
+                closeJournal(journal);
+                return true;
+            }
+            try {
+                if (!runCommand(sc, menu, pricing, orders)) {
+                    closeJournal(journal);
+                    System.out.println("Exiting... Thank you!");
+                    return true;
+                }
+            } catch (InputMismatchException e) {
+                closeJournal(journal);
+                System.out.println("Batch stopped at " + e.getMessage());
+                return false;
+            } catch (NoSuchElementException e) {
+                // input ended part way through a command, which was not run
+                closeJournal(journal);
+                if (sc.isInteractive()) return true;
+                System.out.println("Batch stopped at line " + sc.lineNumber() + ": input ended in the middle of a command");
+                return false;
+            }
+        }
+    }
+
+    // Reads and runs one command; returns false on Exit
+    private static boolean runCommand(LineInput sc, Menu menu, PricingRules pricing, OrderEngine orders) {
+        int choice = sc.nextInt();
+
+        switch (choice) {
+            case 1 -> {
+                sc.prompt("Enter item name: ");
+                String itemName = sc.nextLine();
+                sc.prompt("Enter price: ");
+                long pricePaise;
+                try {
+                    pricePaise = Money.parse(sc.nextLine());
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid price. Use rupees with up to 2 decimals.");
+                    if (!sc.isInteractive()) sc.nextLine(); // skip the category, the rest of this record
+                    break;
+                }
+                sc.prompt("Enter category (blank for " + MenuItem.DEFAULT_CATEGORY + "): ");
+                String category = sc.nextLine();
+                menu.addItem(itemName, pricePaise, category.isEmpty() ? MenuItem.DEFAULT_CATEGORY : category);
+            }
+
+            case 2 -> {
+                sc.prompt("Enter item name to remove: ");
+                String name = sc.nextLine();
+                menu.removeItem(name);
+            }
+
+            case 3 -> menu.displayMenu();
+
+            case 4 -> {
+                // a batch record is read in full before it is checked, so
+                // a rejected order never leaves lines behind for the next command
+                MenuSnapshot currentMenu = menu.snapshot();
+                if (currentMenu.isEmpty() && sc.isInteractive()) {
+                    System.out.println("Menu is empty. Add items first!");
+                    break;
+                }
+
+                sc.prompt("Enter table number: ");
+                int tableNo = sc.nextInt();
+
+                if (sc.isInteractive()) menu.displayMenu();
+                sc.prompt("Select item ID: ");
+                int itemId = sc.nextInt();
+                MenuItem selectedItem = currentMenu.getItemById(itemId);
+
+                if (selectedItem == null && sc.isInteractive()) {
+                    System.out.println("Invalid item selection.");
+                    break;
+                }
+
+                sc.prompt("Enter quantity: ");
+                int quantity = sc.nextInt();
+                if (selectedItem == null) {
+                    System.out.println("Invalid item selection.");
+                    break;
+                }
+                if (quantity <= 0) {
+                    System.out.println("Quantity must be positive.");
+                    break;
+                }
+
+                orders.addOrderItem(tableNo, new OrderItem(selectedItem, quantity, currentMenu.getVersion()));
+                System.out.println("Item added to order for table " + tableNo + "!");
+            }
+
+            case 5 -> {
+                sc.prompt("Enter table number: ");
+                int tableNo = sc.nextInt();
+                if (!orders.generateBill(tableNo)) {
+                    System.out.println("No open order for table " + tableNo + ". Open tables: " + orders.openTables());
+                }
+            }
+
+            case 6 -> {
+                return false;
+            }
+
+            case 7 -> {
+                sc.prompt("Enter table number to close: ");
+                int tableNo = sc.nextInt();
+                if (orders.closeOrder(tableNo) != null) {
+                    System.out.println("Table " + tableNo + " closed.");
+                } else {
+                    System.out.println("No open order for table " + tableNo + ".");
+                }
+            }
+
+            case 8 -> {
+                sc.prompt("Enter table number: ");
+                int tableNo = sc.nextInt();
+                sc.prompt("Enter item ID to remove: ");
+                int itemId = sc.nextInt();
+                sc.prompt("Enter quantity to remove: ");
+                int quantity = sc.nextInt();
+                int removed = orders.removeOrderItem(tableNo, itemId, quantity);
+                if (removed > 0) {
+                    System.out.println(removed + " removed from table " + tableNo + ".");
+                } else {
+                    System.out.println("That item is not on table " + tableNo + "'s order.");
+                }
+            }
+
+            case 9 -> orders.getSalesHistory().printDailyReport(10);
+
+            case 10 -> {
+                System.out.println("\n------ HOT PATH STATS ------");
+                HotPaths.STATS.print();
+            }
+
+            case 11 -> showKitchenDisplay(orders.getKitchen());
+
+            case 12 -> loadPricingRules(pricing);
+
+            case 13 -> {
+                sc.prompt("Enter file name (blank for " + OPEN_BILLS_FILE + "): ");
+                String name = sc.nextLine();
+                File file = new File(name.isEmpty() ? OPEN_BILLS_FILE : name);
+                try {
+                    int written = orders.writeAllBills(file);
+                    if (written == 0) System.out.println("No open orders to print.");
+                    else System.out.println("Appended " + written + (written == 1 ? " bill" : " bills") + " to " + file);
+                } catch (IOException e) {
+                    System.out.println("Error writing bills: " + e.getMessage());
+                }
+            }
+
+            default -> System.out.println("Invalid choice.");
+        }
+        return true;
+    }
+
+    // Installs the rules from pricing-rules.txt if present; the plan is recompiled on next use
+    private static void loadPricingRules(PricingRules pricing) {
+        File file = new File(PRICING_RULES_FILE);
+        if (!file.exists()) return;
+        try {
+            List<PricingRule> rules = PricingRules.load(file);
+            pricing.setRules(rules);
+            System.out.println("Loaded " + rules.size() + " pricing rules from " + PRICING_RULES_FILE);
+        } catch (IOException e) {
+            System.out.println("Error reading pricing rules, keeping current rules: " + e.getMessage());
+        }
+    }
+
+    // Acts as one kitchen display: takes the next batch of tickets off the board
+    private static void showKitchenDisplay(KitchenBoard kitchen) {
+        List<KitchenTicket> batch = new ArrayList<>(KITCHEN_BATCH);
+        kitchen.take(batch, KITCHEN_BATCH);
+        System.out.println("\n------ KITCHEN ------");
+        if (batch.isEmpty()) {
+            System.out.println("No pending tickets.");
+        }
+        for (KitchenTicket ticket : batch) {
+            System.out.println("Table " + ticket.getTableNo() + ": " + ticket.getItemName() + " x " + ticket.getQuantity());
+        }
+        KitchenQueue queue = kitchen.getQueue();
+        System.out.println("Pending: " + kitchen.pending() + ", published: " + queue.getPublished()
+                + ", waits (ring full): " + queue.getFullWaits() + ", peak ring depth: " + queue.getHighWaterMark()
+                + "/" + queue.getCapacity());
+    }
+
+    private static void closeJournal(OrderJournal journal) {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Error closing order journal: " + e.getMessage());
         }
     }
 }
@@ -1,85 +1,1528 @@
+package syntecxhub.cart;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import syntecxhub.stats.HotPathStats;
+import syntecxhub.stats.LatencyStats;
 
 /**
- * Simple Shopping Cart demo using ArrayList (catalog) and HashMap (cart qty + prices).
+ * Simple Shopping Cart demo using ArrayList (catalog), int-keyed
+ * open-addressing maps that store primitives unboxed (cart qty, lookups)
+ * and an epoch-versioned price table.
+ * Carts live in a CartService keyed by shopper session, so many sessions
+ * can shop concurrently; the console drives one session at a time.
  */
 public class ShoppingCartApp {
 
-    // Simple product class
+    // Simple product class; prices live in the PriceTable. Products read by
+    // CatalogLoader hold their name as a slice of the mapped catalog file and
+    // decode it on first use.
     static class Product {
         int id;
-        String name;
-        double price;
+        private String name;
+        private final ByteBuffer nameSource;
+        private final int nameOffset;
+        private final int nameLength;
 
-        Product(int id, String name, double price) {
+        Product(int id, String name) {
             this.id = id;
             this.name = name;
-            this.price = price;
+            this.nameSource = null;
+            this.nameOffset = 0;
+            this.nameLength = 0;
+        }
+
+        Product(int id, ByteBuffer nameSource, int nameOffset, int nameLength) {
+            this.id = id;
+            this.nameSource = nameSource;
+            this.nameOffset = nameOffset;
+            this.nameLength = nameLength;
+        }
+
+        String name() {
+            String n = name;
+            if (n == null) {
+                // racing decodes produce equal strings, so no lock is needed
+                byte[] bytes = new byte[nameLength];
+                nameSource.get(nameOffset, bytes);
+                n = new String(bytes, StandardCharsets.UTF_8);
+                name = n;
+            }
+            return n;
+        }
+    }
+
+    // Latency stats shown by the Stats menu option and published over JMX
+    // as ShoppingCartApp:type=HotPathStats
+    static final class HotPaths {
+        static final LatencyStats CHECKOUT = new LatencyStats("checkout");
+        static final HotPathStats STATS = new HotPathStats("ShoppingCartApp", CHECKOUT);
+
+        private HotPaths() { }
+    }
+
+    // Open-addressing index from int keys to dense positions. Keys (and the
+    // values kept by subclasses) live in packed parallel arrays, so there is
+    // no boxing and no per-entry node object. Iteration walks the dense
+    // arrays in insertion order; removing an entry moves the last entry into
+    // its place.
+    abstract static class IntKeyedMap {
+        private static final int EMPTY = -1;
+
+        protected int[] keys;
+        protected int size;
+        private int[] slots;
+        private int mask;
+
+        IntKeyedMap(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+            slots = new int[capacity];
+            Arrays.fill(slots, EMPTY);
+            mask = capacity - 1;
+            keys = new int[Math.max(4, expectedSize)];
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        // Dense position of key, or -1
+        final int indexOf(int key) {
+            int slot = hash(key) & mask;
+            while (true) {
+                int pos = slots[slot];
+                if (pos == EMPTY) return -1;
+                if (keys[pos] == key) return pos;
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        public final boolean containsKey(int key) {
+            return indexOf(key) >= 0;
+        }
+
+        public final int size() {
+            return size;
+        }
+
+        public final boolean isEmpty() {
+            return size == 0;
+        }
+
+        public final int keyAt(int index) {
+            return keys[index];
+        }
+
+        // Grows once up front so a bulk load does not rehash repeatedly
+        public final void ensureCapacity(int expectedSize) {
+            if (expectedSize > keys.length) {
+                keys = Arrays.copyOf(keys, expectedSize);
+                growValues(expectedSize);
+            }
+            int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+            if (capacity > slots.length) rehash(capacity);
+        }
+
+        // Position for key, appending a new entry if absent
+        final int insert(int key) {
+            int pos = indexOf(key);
+            if (pos >= 0) return pos;
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                growValues(capacity);
+            }
+            if ((size + 1) * 2 > slots.length) rehash(slots.length * 2);
+            pos = size++;
+            keys[pos] = key;
+            int slot = hash(key) & mask;
+            while (slots[slot] != EMPTY) slot = (slot + 1) & mask;
+            slots[slot] = pos;
+            return pos;
+        }
+
+        private void rehash(int capacity) {
+            slots = new int[capacity];
+            Arrays.fill(slots, EMPTY);
+            mask = capacity - 1;
+            for (int pos = 0; pos < size; pos++) {
+                int slot = hash(keys[pos]) & mask;
+                while (slots[slot] != EMPTY) slot = (slot + 1) & mask;
+                slots[slot] = pos;
+            }
+        }
+
+        public final boolean remove(int key) {
+            int slot = hash(key) & mask;
+            while (slots[slot] != EMPTY && keys[slots[slot]] != key) slot = (slot + 1) & mask;
+            if (slots[slot] == EMPTY) return false;
+            int pos = slots[slot];
+            deleteSlot(slot);
+
+            // keep the dense arrays packed by moving the last entry into the hole
+            int last = --size;
+            if (pos != last) {
+                keys[pos] = keys[last];
+                moveValue(last, pos);
+                int moved = hash(keys[pos]) & mask;
+                while (slots[moved] != last) moved = (moved + 1) & mask;
+                slots[moved] = pos;
+            }
+            clearValue(last);
+            return true;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        private void deleteSlot(int slot) {
+            int gap = slot;
+            int next = (gap + 1) & mask;
+            while (slots[next] != EMPTY) {
+                int ideal = hash(keys[slots[next]]) & mask;
+                if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                    slots[gap] = slots[next];
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            slots[gap] = EMPTY;
+        }
+
+        public void clear() {
+            Arrays.fill(slots, EMPTY);
+            for (int pos = 0; pos < size; pos++) clearValue(pos);
+            size = 0;
+        }
+
+        abstract void growValues(int capacity);
+
+        abstract void moveValue(int from, int to);
+
+        void clearValue(int index) { }
+    }
+
+    static final class IntIntMap extends IntKeyedMap {
+        private int[] values;
+
+        IntIntMap(int expectedSize) {
+            super(expectedSize);
+            values = new int[keys.length];
+        }
+
+        public int get(int key, int defaultValue) {
+            int pos = indexOf(key);
+            return pos < 0 ? defaultValue : values[pos];
+        }
+
+        public void put(int key, int value) {
+            int pos = insert(key); // may grow values, so index after the call
+            values[pos] = value;
+        }
+
+        public int valueAt(int index) {
+            return values[index];
+        }
+
+        // Independent copy with room for expectedSize entries
+        IntIntMap copy(int expectedSize) {
+            IntIntMap copy = new IntIntMap(Math.max(expectedSize, size));
+            for (int pos = 0; pos < size; pos++) copy.put(keys[pos], values[pos]);
+            return copy;
+        }
+
+        @Override void growValues(int capacity) { values = Arrays.copyOf(values, capacity); }
+        @Override void moveValue(int from, int to) { values[to] = values[from]; }
+    }
+
+    static final class IntObjectMap<V> extends IntKeyedMap {
+        private Object[] values;
+
+        IntObjectMap(int expectedSize) {
+            super(expectedSize);
+            values = new Object[keys.length];
+        }
+
+        @SuppressWarnings("unchecked")
+        public V get(int key) {
+            int pos = indexOf(key);
+            return pos < 0 ? null : (V) values[pos];
+        }
+
+        public void put(int key, V value) {
+            int pos = insert(key); // may grow values, so index after the call
+            values[pos] = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V valueAt(int index) {
+            return (V) values[index];
+        }
+
+        @Override void growValues(int capacity) { values = Arrays.copyOf(values, capacity); }
+        @Override void moveValue(int from, int to) { values[to] = values[from]; }
+        @Override void clearValue(int index) { values[index] = null; }
+    }
+
+    // One shopper's cart. A cart is its own lock: callers reach it only
+    // through CartService.withCart/updateCart, which hold that lock and make
+    // sure the cart has not been evicted, so the methods here are unsynchronized.
+    // Item count and total are kept current on every change, so reading them
+    // never walks the lines. The total is at the price epoch the cart was
+    // last priced at; refreshPrices re-sums it when a newer epoch exists.
+    static final class Cart {
+        // productId -> quantity
+        private final IntIntMap quantities;
+        private final PriceTable prices;
+        private PriceTable.Epoch pricedAt;
+        private long itemCount;
+        private long totalPaise;
+        private volatile long lastAccessNanos = System.nanoTime();
+        private boolean evicted; // guarded by this
+        private boolean restored; // guarded by this; any spilled lines have been read back
+
+        Cart(PriceTable prices) {
+            this.prices = prices;
+            this.pricedAt = prices.current();
+            quantities = new IntIntMap(8);
+        }
+
+        // Reprices every line if prices were published since the cart was last used
+        void refreshPrices() {
+            PriceTable.Epoch latest = prices.current();
+            if (latest == pricedAt) return;
+            pricedAt = latest;
+            long total = 0;
+            for (int i = 0; i < quantities.size(); i++) {
+                total += unitPaise(quantities.keyAt(i)) * quantities.valueAt(i);
+            }
+            totalPaise = total;
+        }
+
+        long priceEpoch() {
+            return pricedAt.number;
+        }
+
+        long unitPaise(int id) {
+            int slot = prices.slotOf(id);
+            return slot < 0 ? 0 : pricedAt.pricePaise(slot);
+        }
+
+        boolean isEmpty() {
+            return quantities.isEmpty();
+        }
+
+        boolean contains(int id) {
+            return quantities.containsKey(id);
+        }
+
+        int lineCount() {
+            return quantities.size();
+        }
+
+        int idAt(int line) {
+            return quantities.keyAt(line);
+        }
+
+        int quantityAt(int line) {
+            return quantities.valueAt(line);
+        }
+
+        long itemCount() {
+            return itemCount;
+        }
+
+        long totalPaise() {
+            return totalPaise;
+        }
+
+        void add(int id, int qty) {
+            quantities.put(id, quantities.get(id, 0) + qty);
+            adjust(id, qty);
+        }
+
+        // New quantity for a line already in the cart, 0 removes it; false if absent
+        boolean setQuantity(int id, int qty) {
+            int old = quantities.get(id, 0);
+            if (old == 0) return false;
+            if (qty == 0) {
+                quantities.remove(id);
+            } else {
+                quantities.put(id, qty);
+            }
+            adjust(id, qty - old);
+            return true;
+        }
+
+        boolean remove(int id) {
+            return setQuantity(id, 0);
+        }
+
+        void clear() {
+            quantities.clear();
+            itemCount = 0;
+            totalPaise = 0;
+        }
+
+        private void adjust(int id, long qtyDelta) {
+            itemCount += qtyDelta;
+            totalPaise += unitPaise(id) * qtyDelta;
+        }
+
+        // Rough heap footprint, used by the service's memory bound
+        long estimatedBytes() {
+            return 128 + 32L * quantities.size();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(quantities.size());
+            for (int i = 0; i < quantities.size(); i++) {
+                out.writeInt(quantities.keyAt(i));
+                out.writeInt(quantities.valueAt(i));
+            }
+        }
+
+        void readFrom(DataInputStream in) throws IOException {
+            int lines = in.readInt();
+            if (lines < 0) throw new IOException("corrupt cart file");
+            for (int i = 0; i < lines; i++) {
+                add(in.readInt(), in.readInt());
+            }
+        }
+    }
+
+    // Carts for many concurrent shopper sessions, keyed by session id. The map
+    // is a ConcurrentHashMap and each cart is mutated under its own lock, so
+    // there is no global lock. A background sweeper evicts carts idle longer
+    // than the TTL, then the least recently used ones while the estimated
+    // footprint is over the memory bound. With a spill directory an evicted
+    // cart is written there and reloaded the next time its session is used;
+    // without one it is dropped, so idle eviction is off by default then and
+    // only the memory bound drops carts (counted in droppedCount).
+    // Java 17 has no virtual threads, so sessions run on whatever platform
+    // threads call in. The cart locks are monitors held across spill-file
+    // IO, which would pin a virtual thread; moving to 21 means swapping them
+    // for ReentrantLock.
+    static final class CartService implements AutoCloseable {
+        private final ConcurrentHashMap<String, Cart> carts = new ConcurrentHashMap<>();
+        private final PriceTable prices;
+        private final long idleTtlNanos;
+        private final long memoryBudgetBytes;
+        private final Path spillDir; // null: evicted carts are dropped
+        private final ScheduledExecutorService sweeper;
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder reloads = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        // A zero idleTtl turns idle eviction off
+        CartService(PriceTable prices, Duration idleTtl, long memoryBudgetBytes, Path spillDir) {
+            this.prices = prices;
+            this.idleTtlNanos = idleTtl.isZero() ? Long.MAX_VALUE : idleTtl.toNanos();
+            this.memoryBudgetBytes = memoryBudgetBytes;
+            this.spillDir = spillDir;
+            if (spillDir != null) {
+                try {
+                    Files.createDirectories(spillDir);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "cart-sweeper");
+                t.setDaemon(true);
+                return t;
+            });
+            long periodMillis = idleTtl.isZero() ? 1000 : Math.max(1, Math.min(idleTtl.toMillis(), 1000));
+            sweeper.scheduleWithFixedDelay(this::sweep, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+
+        // Configured from system properties: cart.spillDir (unset: no spilling),
+        // cart.idleTtlSeconds (default 1800 with a spill dir, 0 = off without
+        // one) and cart.memoryBudgetMB (default 64)
+        static CartService fromSystemProperties(PriceTable prices) {
+            String dir = System.getProperty("cart.spillDir");
+            Path spillDir = dir == null || dir.isEmpty() ? null : Paths.get(dir);
+            return new CartService(prices,
+                    Duration.ofSeconds(Long.getLong("cart.idleTtlSeconds", spillDir == null ? 0 : 1800)),
+                    Long.getLong("cart.memoryBudgetMB", 64) << 20, spillDir);
+        }
+
+        // Runs op on the session's cart under the cart's lock, creating or
+        // reloading the cart first if needed and repricing it if prices moved on.
+        // A new cart goes into the map empty and is reloaded under its own lock,
+        // so spill-file IO never runs inside a map update and never holds up
+        // other sessions.
+        <T> T withCart(String sessionId, Function<Cart, T> op) {
+            while (true) {
+                Cart cart = carts.get(sessionId);
+                if (cart == null) {
+                    Cart created = new Cart(prices);
+                    cart = carts.putIfAbsent(sessionId, created);
+                    if (cart == null) cart = created;
+                }
+                synchronized (cart) {
+                    if (!cart.evicted) {
+                        if (!cart.restored) restore(sessionId, cart);
+                        cart.lastAccessNanos = System.nanoTime();
+                        cart.refreshPrices();
+                        return op.apply(cart);
+                    }
+                }
+                // lost a race with the sweeper; the cart is gone from the map, look it up again
+            }
+        }
+
+        void updateCart(String sessionId, Consumer<Cart> op) {
+            withCart(sessionId, cart -> {
+                op.accept(cart);
+                return null;
+            });
+        }
+
+        int sessionCount() {
+            return carts.size();
+        }
+
+        long evictionCount() {
+            return evictions.sum();
+        }
+
+        long reloadCount() {
+            return reloads.sum();
+        }
+
+        // Non-empty carts evicted with nowhere to spill them
+        long droppedCount() {
+            return dropped.sum();
+        }
+
+        boolean spillsEvictedCarts() {
+            return spillDir != null;
+        }
+
+        // Idle carts first, then least recently used ones until under the memory bound
+        void sweep() {
+            long now = System.nanoTime();
+            long footprint = 0;
+            List<Candidate> live = new ArrayList<>();
+            for (Map.Entry<String, Cart> e : carts.entrySet()) {
+                Cart cart = e.getValue();
+                long lastAccess = cart.lastAccessNanos;
+                if (now - lastAccess > idleTtlNanos && evict(e.getKey(), cart, lastAccess)) continue;
+                long bytes = cart.estimatedBytes();
+                footprint += bytes;
+                live.add(new Candidate(e.getKey(), cart, lastAccess, bytes));
+            }
+            if (footprint <= memoryBudgetBytes) return;
+            // access times were copied above, so the sort key is stable while shoppers keep going
+            live.sort(Comparator.comparingLong(c -> c.lastAccessNanos));
+            for (Candidate c : live) {
+                if (footprint <= memoryBudgetBytes) break;
+                if (evict(c.sessionId, c.cart, c.lastAccessNanos)) footprint -= c.bytes;
+            }
+        }
+
+        // Evicts the cart unless it was used again after the sweeper looked at it
+        private boolean evict(String sessionId, Cart cart, long seenAccessNanos) {
+            synchronized (cart) {
+                if (cart.evicted || cart.lastAccessNanos != seenAccessNanos) return false;
+                if (spillDir == null) {
+                    if (!cart.isEmpty()) dropped.increment();
+                } else if (!cart.isEmpty()) {
+                    try {
+                        spill(sessionId, cart);
+                    } catch (IOException e) {
+                        System.out.println("Error spilling cart: " + e.getMessage());
+                        return false;
+                    }
+                }
+                cart.evicted = true;
+                carts.remove(sessionId, cart);
+            }
+            evictions.increment();
+            return true;
+        }
+
+        private void spill(String sessionId, Cart cart) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(spillFile(sessionId))))) {
+                cart.writeTo(out);
+            }
+        }
+
+        // Reads back the session's spilled lines, if any, into its new empty
+        // cart; called with the cart's lock held. A failed read leaves the
+        // cart unrestored, so the next use tries again.
+        private void restore(String sessionId, Cart cart) {
+            Path file = spillDir == null ? null : spillFile(sessionId);
+            if (file != null && Files.exists(file)) {
+                try {
+                    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                        cart.readFrom(in);
+                    }
+                    Files.delete(file);
+                } catch (IOException e) {
+                    cart.clear();
+                    throw new UncheckedIOException("Cannot reload cart for session " + sessionId, e);
+                }
+                reloads.increment();
+            }
+            cart.restored = true;
+        }
+
+        // Session ids are arbitrary strings, so file names use their URL-safe Base64 form
+        private Path spillFile(String sessionId) {
+            return spillDir.resolve(Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(sessionId.getBytes(StandardCharsets.UTF_8)) + ".cart");
+        }
+
+        // Waits for a sweep in progress, so no cart is spilled after close returns
+        @Override
+        public void close() {
+            sweeper.shutdownNow();
+            try {
+                sweeper.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static final class Candidate {
+            final String sessionId;
+            final Cart cart;
+            final long lastAccessNanos;
+            final long bytes;
+
+            Candidate(String sessionId, Cart cart, long lastAccessNanos, long bytes) {
+                this.sessionId = sessionId;
+                this.cart = cart;
+                this.lastAccessNanos = lastAccessNanos;
+                this.bytes = bytes;
+            }
+        }
+    }
+
+    // Reads an "id,name,price" catalog file (UTF-8, optional header line).
+    // The file is split at line boundaries into chunks that are memory-mapped
+    // and parsed in parallel; products keep their name as a slice of the
+    // mapping and only decode it when first shown. A name may itself contain
+    // commas, since the price is taken from after the last one.
+    static final class CatalogLoader {
+        private static final long MIN_CHUNK = 1 << 20;
+        private static final long MAX_CHUNK = 64 << 20;
+
+        private final LongAdder malformed = new LongAdder();
+
+        // Products in file order with their list prices
+        static final class Batch {
+            final ArrayList<Product> products = new ArrayList<>();
+            long[] pricePaise = new long[16];
+
+            void add(Product p, long paise) {
+                int n = products.size();
+                if (n == pricePaise.length) pricePaise = Arrays.copyOf(pricePaise, n * 2);
+                pricePaise[n] = paise;
+                products.add(p);
+            }
+        }
+
+        long malformedLines() {
+            return malformed.sum();
+        }
+
+        Batch load(Path file) throws IOException {
+            List<MappedByteBuffer> chunks = new ArrayList<>();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long target = Math.max(MIN_CHUNK,
+                        Math.min(MAX_CHUNK, size / (4L * Runtime.getRuntime().availableProcessors())));
+                long start = 0;
+                while (start < size) {
+                    long end = nextLineStart(channel, Math.min(size, start + target), size);
+                    if (end - start > Integer.MAX_VALUE) throw new IOException("line too long near offset " + start);
+                    // a mapping stays valid after its channel is closed
+                    chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                    start = end;
+                }
+            }
+            List<Batch> parsed = IntStream.range(0, chunks.size()).parallel()
+                    .mapToObj(i -> parseChunk(chunks.get(i), i == 0))
+                    .collect(Collectors.toList());
+            Batch all = new Batch();
+            int total = parsed.stream().mapToInt(b -> b.products.size()).sum();
+            all.products.ensureCapacity(total);
+            all.pricePaise = new long[Math.max(16, total)];
+            for (Batch part : parsed) {
+                System.arraycopy(part.pricePaise, 0, all.pricePaise, all.products.size(), part.products.size());
+                all.products.addAll(part.products);
+            }
+            return all;
+        }
+
+        // First position after the line containing pos - 1, so chunks never split a line
+        private static long nextLineStart(FileChannel channel, long pos, long size) throws IOException {
+            if (pos >= size) return size;
+            ByteBuffer buf = ByteBuffer.allocate(8192);
+            long at = pos - 1;
+            while (at < size) {
+                buf.clear();
+                int n = channel.read(buf, at);
+                if (n <= 0) break;
+                for (int i = 0; i < n; i++) {
+                    if (buf.get(i) == '\n') return at + i + 1;
+                }
+                at += n;
+            }
+            return size;
+        }
+
+        private Batch parseChunk(ByteBuffer chunk, boolean mayHaveHeader) {
+            Batch batch = new Batch();
+            int limit = chunk.limit();
+            int pos = 0;
+            boolean first = mayHaveHeader;
+            while (pos < limit) {
+                int end = pos;
+                while (end < limit && chunk.get(end) != '\n') end++;
+                if (!parseLine(chunk, pos, end, batch) && !first && !isBlank(chunk, pos, end)) {
+                    malformed.increment();
+                }
+                first = false;
+                pos = end + 1;
+            }
+            return batch;
+        }
+
+        private static boolean parseLine(ByteBuffer buf, int start, int end, Batch out) {
+            if (end > start && buf.get(end - 1) == '\r') end--;
+            int firstComma = start;
+            while (firstComma < end && buf.get(firstComma) != ',') firstComma++;
+            int lastComma = end - 1;
+            while (lastComma > firstComma && buf.get(lastComma) != ',') lastComma--;
+            if (lastComma <= firstComma) return false;
+
+            long id = parseDigits(buf, start, firstComma);
+            if (id < 0 || id > Integer.MAX_VALUE) return false;
+            long paise = parsePaise(buf, lastComma + 1, end);
+            if (paise < 0) return false;
+
+            int nameStart = firstComma + 1;
+            int nameEnd = lastComma;
+            while (nameStart < nameEnd && buf.get(nameStart) == ' ') nameStart++;
+            while (nameEnd > nameStart && buf.get(nameEnd - 1) == ' ') nameEnd--;
+            if (nameStart == nameEnd) return false;
+            out.add(new Product((int) id, buf, nameStart, nameEnd - nameStart), paise);
+            return true;
+        }
+
+        // Unsigned integer between optional spaces, or -1
+        private static long parseDigits(ByteBuffer buf, int start, int end) {
+            while (start < end && buf.get(start) == ' ') start++;
+            while (end > start && buf.get(end - 1) == ' ') end--;
+            if (start == end || end - start > 10) return -1;
+            long value = 0;
+            for (int i = start; i < end; i++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9) return -1;
+                value = value * 10 + d;
+            }
+            return value;
+        }
+
+        // Typed prices go through the same rule, so the same text always
+        // means the same price
+        static long parsePaise(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+            return parsePaise(ByteBuffer.wrap(bytes), 0, bytes.length);
+        }
+
+        // Non-negative decimal such as 2499.50 between optional spaces, in
+        // paise rounded half up, or -1
+        private static long parsePaise(ByteBuffer buf, int start, int end) {
+            while (start < end && buf.get(start) == ' ') start++;
+            while (end > start && buf.get(end - 1) == ' ') end--;
+            int dot = start;
+            while (dot < end && buf.get(dot) != '.') dot++;
+            long whole = parseDigits(buf, start, dot);
+            if (whole < 0) return -1;
+            long paise = whole * 100;
+            for (int i = dot + 1, digit = 0; i < end; i++, digit++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9) return -1;
+                if (digit == 0) {
+                    paise += d * 10;
+                } else if (digit == 1) {
+                    paise += d;
+                } else if (digit == 2 && d >= 5) {
+                    paise++; // the third decimal rounds; later ones are ignored
+                }
+            }
+            return paise;
+        }
+
+        private static boolean isBlank(ByteBuffer buf, int start, int end) {
+            for (int i = start; i < end; i++) {
+                byte b = buf.get(i);
+                if (b != ' ' && b != '\r' && b != '\t') return false;
+            }
+            return true;
+        }
+    }
+
+    // Search over product names. Every lowercased trigram of a name and the
+    // first one and two characters of each word map to a posting list of
+    // products. Lists are appended in insertion order, so they stay sorted.
+    // Each entry also records where the gram sits in the name (start, word
+    // start or inside), so most ranking needs no trip to the name itself.
+    // Queries of three or more characters match anywhere in a name; shorter
+    // ones match word prefixes.
+    static final class ProductSearchIndex {
+        private static final int WORD_PREFIX = 1 << 30;
+        private static final int AT_START = 0;
+        private static final int AT_WORD = 1;
+        private static final int INSIDE = 2;
+
+        private final ArrayList<Product> products = new ArrayList<>();
+        private int[] nameLengths = new int[16];
+        private final IntObjectMap<Postings> postings = new IntObjectMap<>(1024);
+
+        static final class Result {
+            final List<Product> products; // best first
+            final int matches;
+            // false when some lower-ranked candidates were counted without
+            // checking the name, which only matters for rare gram collisions
+            final boolean exactCount;
+
+            Result(List<Product> products, int matches, boolean exactCount) {
+                this.products = products;
+                this.matches = matches;
+                this.exactCount = exactCount;
+            }
+        }
+
+        // Entries are position << 2 | where
+        private static final class Postings {
+            int[] entries = new int[4];
+            int size;
+
+            void add(int position, int where) {
+                int entry = position << 2 | where;
+                if (size > 0 && entries[size - 1] >>> 2 == position) {
+                    // a name repeating a gram keeps its best placement
+                    entries[size - 1] = Math.min(entries[size - 1], entry);
+                    return;
+                }
+                if (size == entries.length) entries = Arrays.copyOf(entries, size * 2);
+                entries[size++] = entry;
+            }
+
+            // First index at or after from whose position is >= position (galloping)
+            int seek(int from, int position) {
+                int target = position << 2;
+                int step = 1;
+                int hi = from;
+                while (hi < size && entries[hi] < target) {
+                    from = hi + 1;
+                    hi += step;
+                    step <<= 1;
+                }
+                int lo = from;
+                hi = Math.min(hi, size);
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (entries[mid] < target) lo = mid + 1; else hi = mid;
+                }
+                return lo;
+            }
+        }
+
+        int size() {
+            return products.size();
+        }
+
+        void add(Product p) {
+            int position = products.size();
+            products.add(p);
+            String name = p.name();
+            if (position == nameLengths.length) nameLengths = Arrays.copyOf(nameLengths, position * 2);
+            nameLengths[position] = name.length();
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                post(trigramKey(name, i), position, i == 0 ? AT_START : isWordStart(name, i) ? AT_WORD : INSIDE);
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (i > 0 && !isWordStart(name, i)) continue;
+                int where = i == 0 ? AT_START : AT_WORD;
+                post(prefixKey(name, i, 1), position, where);
+                if (i + 2 <= name.length()) post(prefixKey(name, i, 2), position, where);
+            }
+        }
+
+        // Up to limit best matches: exact name, then name prefix, then word
+        // prefix, then any other substring; shorter names first within a tier
+        Result search(String query, int limit) {
+            String q = lower(query.trim());
+            if (q.isEmpty()) return new Result(Collections.emptyList(), 0, true);
+
+            Postings[] lists;
+            if (q.length() >= 3) {
+                // trigrams at 0, 3, 6, ... plus the last one cover every character
+                lists = new Postings[(q.length() + 2) / 3];
+                for (int i = 0; i < lists.length; i++) {
+                    lists[i] = postings.get(trigramKey(q, Math.min(3 * i, q.length() - 3)));
+                }
+            } else {
+                lists = new Postings[] { postings.get(prefixKey(q, 0, q.length())) };
+            }
+            int smallest = 0;
+            for (int i = 0; i < lists.length; i++) {
+                if (lists[i] == null) return new Result(Collections.emptyList(), 0, true);
+                if (lists[i].size < lists[smallest].size) smallest = i;
+            }
+            // with one gram and no colliding characters a posting is a match
+            boolean postingIsMatch = lists.length == 1;
+            for (int i = 0; i < q.length(); i++) {
+                if (q.charAt(i) >= 0x3FF) postingIsMatch = false;
+            }
+
+            // max-heap of rank keys keeps the best `limit` seen so far
+            PriorityQueue<Long> best = new PriorityQueue<>(Math.max(1, limit), Comparator.reverseOrder());
+            long worstKept = limit > 0 ? Long.MAX_VALUE : Long.MIN_VALUE; // best.peek() once full
+            int matches = 0;
+            boolean exactCount = true;
+            Postings driver = lists[smallest];
+            Postings first = lists[0];
+            int[] cursors = new int[lists.length];
+            candidates:
+            for (int c = 0; c < driver.size; c++) {
+                int position = driver.entries[c] >>> 2;
+                for (int i = 0; i < lists.length; i++) {
+                    if (lists[i] == driver) continue;
+                    cursors[i] = lists[i].seek(cursors[i], position);
+                    if (cursors[i] == lists[i].size) break candidates;
+                    if (lists[i].entries[cursors[i]] >>> 2 != position) continue candidates;
+                }
+                // the query's first gram placement is the best tier this name can reach
+                int where = (first == driver ? driver.entries[c] : first.entries[cursors[0]]) & 3;
+                int tier = where == AT_START && nameLengths[position] == q.length() ? 0 : where + 1;
+                long key = rankKey(tier, position);
+                if (!postingIsMatch) {
+                    if (key >= worstKept) {
+                        matches++; // cannot reach the page, so skip reading the name
+                        exactCount = false;
+                        continue;
+                    }
+                    tier = rank(products.get(position).name(), q);
+                    if (tier < 0) continue;
+                    key = rankKey(tier, position);
+                }
+                matches++;
+                if (key < worstKept) {
+                    if (best.size() == limit) best.poll();
+                    best.add(key);
+                    if (best.size() == limit) worstKept = best.peek();
+                }
+            }
+
+            Product[] top = new Product[best.size()];
+            for (int i = top.length - 1; i >= 0; i--) {
+                top[i] = products.get((int) (long) best.poll());
+            }
+            return new Result(Arrays.asList(top), matches, exactCount);
+        }
+
+        private long rankKey(int tier, int position) {
+            return (long) tier << 56 | (long) Math.min(nameLengths[position], 0xFFFFFF) << 32 | position;
+        }
+
+        // 0 exact, 1 name prefix, 2 word prefix, 3 elsewhere, -1 no match
+        // (short queries only count word prefixes)
+        private static int rank(String name, String q) {
+            int tier = -1;
+            for (int i = 0; i + q.length() <= name.length(); i++) {
+                if (!matchesAt(name, i, q)) continue;
+                if (i == 0) return name.length() == q.length() ? 0 : 1;
+                if (isWordStart(name, i)) return 2;
+                if (q.length() >= 3) tier = 3;
+            }
+            return tier;
+        }
+
+        private static boolean matchesAt(String name, int offset, String q) {
+            for (int j = 0; j < q.length(); j++) {
+                if (Character.toLowerCase(name.charAt(offset + j)) != q.charAt(j)) return false;
+            }
+            return true;
+        }
+
+        private static boolean isWordStart(String name, int i) {
+            return Character.isLetterOrDigit(name.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1)));
+        }
+
+        private static String lower(String s) {
+            char[] chars = s.toCharArray();
+            for (int i = 0; i < chars.length; i++) chars[i] = Character.toLowerCase(chars[i]);
+            return new String(chars);
+        }
+
+        // Ten bits per character; characters that collide are told apart by rank()
+        private static int trigramKey(String s, int i) {
+            return (Character.toLowerCase(s.charAt(i)) & 0x3FF) << 20
+                    | (Character.toLowerCase(s.charAt(i + 1)) & 0x3FF) << 10
+                    | (Character.toLowerCase(s.charAt(i + 2)) & 0x3FF);
+        }
+
+        private static int prefixKey(String s, int i, int length) {
+            int key = WORD_PREFIX | (Character.toLowerCase(s.charAt(i)) & 0x3FF) << 10;
+            return length == 1 ? key | 0x3FF : key | (Character.toLowerCase(s.charAt(i + 1)) & 0x3FF);
+        }
+
+        private void post(int key, int position, int where) {
+            Postings list = postings.get(key);
+            if (list == null) {
+                list = new Postings();
+                postings.put(key, list);
+            }
+            list.add(position, where);
+        }
+    }
+
+    // Units in stock per product. Each product's count is its own slot in
+    // an AtomicIntegerArray; checkout reserves a cart's lines one CAS at a
+    // time and gives back what it already took if a later line is short, so
+    // no global lock is taken and shoppers buying different products never
+    // touch the same counter. A reservation that is not confirmed within the
+    // hold time is released. Every hold lasts equally long, so a lock-free
+    // FIFO of holds is also in expiry order and a daemon sweeper only looks
+    // at its head.
+    static final class Inventory implements AutoCloseable {
+        private static final int PENDING = 0;
+        private static final int CONFIRMED = 1;
+        private static final int RELEASED = 2;
+        private static final int PAGE_BITS = 10;
+        private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+        // productId -> slot, and the unit counters in fixed-size pages. Adding
+        // products publishes a new Stock rather than changing this one, so a
+        // checkout always reads a complete slot map. Pages are shared by every
+        // Stock, so a counter is never copied while reservations change it.
+        private static final class Stock {
+            final IntIntMap slots;
+            final AtomicIntegerArray[] pages;
+
+            Stock(IntIntMap slots, AtomicIntegerArray[] pages) {
+                this.slots = slots;
+                this.pages = pages;
+            }
+
+            int slotOf(int productId) {
+                return slots.get(productId, -1);
+            }
+
+            AtomicIntegerArray page(int slot) {
+                return pages[slot >>> PAGE_BITS];
+            }
+        }
+
+        private volatile Stock stock = new Stock(new IntIntMap(16), new AtomicIntegerArray[0]);
+        private final long holdNanos;
+        private final ConcurrentLinkedQueue<Reservation> holds = new ConcurrentLinkedQueue<>();
+        private final ScheduledExecutorService sweeper;
+        private final LongAdder expirations = new LongAdder();
+
+        static final class OutOfStockException extends RuntimeException {
+            private static final long serialVersionUID = 1L;
+            final int productId;
+            final int available;
+
+            OutOfStockException(int productId, int available) {
+                super("only " + available + " of product " + productId + " in stock");
+                this.productId = productId;
+                this.available = available;
+            }
+        }
+
+        // Stock held for one checkout until it is confirmed, released or expires
+        final class Reservation {
+            private final int[] reservedSlots;
+            private final int[] quantities;
+            private final AtomicInteger state = new AtomicInteger(PENDING);
+            private final long expiresAtNanos = System.nanoTime() + holdNanos;
+
+            private Reservation(int[] reservedSlots, int[] quantities) {
+                this.reservedSlots = reservedSlots;
+                this.quantities = quantities;
+            }
+
+            // Turns the hold into a sale; false if it has already expired
+            boolean confirm() {
+                if (System.nanoTime() - expiresAtNanos >= 0) {
+                    expire(); // the sweeper may not have reached it yet
+                    return false;
+                }
+                return state.compareAndSet(PENDING, CONFIRMED);
+            }
+
+            void release() {
+                if (state.compareAndSet(PENDING, RELEASED)) {
+                    giveBack(reservedSlots, quantities, reservedSlots.length);
+                }
+            }
+
+            private void expire() {
+                if (state.compareAndSet(PENDING, RELEASED)) {
+                    giveBack(reservedSlots, quantities, reservedSlots.length);
+                    expirations.increment();
+                }
+            }
+        }
+
+        Inventory(Duration hold) {
+            this.holdNanos = hold.toNanos();
+            sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "reservation-expiry");
+                t.setDaemon(true);
+                return t;
+            });
+            long periodMillis = Math.max(1, Math.min(hold.toMillis(), 1000));
+            sweeper.scheduleWithFixedDelay(this::expireOverdue, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+
+        // Hold time from the inventory.holdSeconds system property (default 300)
+        static Inventory fromSystemProperties() {
+            return new Inventory(Duration.ofSeconds(Long.getLong("inventory.holdSeconds", 300)));
+        }
+
+        synchronized void ensureCapacity(int products) {
+            Stock current = stock;
+            if (products <= current.slots.size()) return;
+            stock = new Stock(current.slots.copy(products), current.pages);
+        }
+
+        // Sets a product's stock; safe while checkouts run. A new product
+        // copies the slot map, so add many at once with registerAll.
+        void register(int productId, int units) {
+            registerAll(new int[] { productId }, 1, units);
+        }
+
+        // Sets the first count products' stock to units, publishing one new
+        // slot map for all the products that are new
+        synchronized void registerAll(int[] productIds, int count, int units) {
+            Stock current = stock;
+            IntIntMap slots = current.slots;
+            AtomicIntegerArray[] pages = current.pages;
+            boolean copied = false;
+            for (int i = 0; i < count; i++) {
+                int slot = slots.get(productIds[i], -1);
+                if (slot < 0) {
+                    if (!copied) {
+                        slots = slots.copy(slots.size() + count - i);
+                        copied = true;
+                    }
+                    slot = slots.size();
+                    slots.put(productIds[i], slot);
+                    int page = slot >>> PAGE_BITS;
+                    if (page == pages.length) {
+                        pages = Arrays.copyOf(pages, page + 1);
+                        pages[page] = new AtomicIntegerArray(1 << PAGE_BITS);
+                    }
+                }
+                // a new slot is not visible to checkouts until the new Stock is published
+                pages[slot >>> PAGE_BITS].set(slot & PAGE_MASK, units);
+            }
+            if (copied) stock = new Stock(slots, pages);
+        }
+
+        int available(int productId) {
+            Stock current = stock;
+            int slot = current.slotOf(productId);
+            return slot < 0 ? 0 : current.page(slot).get(slot & PAGE_MASK);
+        }
+
+        long expirationCount() {
+            return expirations.sum();
+        }
+
+        // Reserves every line of the cart or none of them. Call with the
+        // cart's lock held (inside CartService.withCart).
+        Reservation reserve(Cart cart) {
+            int lines = cart.lineCount();
+            int[] reservedSlots = new int[lines];
+            int[] quantities = new int[lines];
+            Stock current = stock;
+            for (int i = 0; i < lines; i++) {
+                int id = cart.idAt(i);
+                int qty = cart.quantityAt(i);
+                int slot = current.slotOf(id);
+                int have = slot < 0 ? 0 : take(current.page(slot), slot & PAGE_MASK, qty);
+                if (have >= 0) {
+                    giveBack(reservedSlots, quantities, i);
+                    throw new OutOfStockException(id, have);
+                }
+                reservedSlots[i] = slot;
+                quantities[i] = qty;
+            }
+            Reservation reservation = new Reservation(reservedSlots, quantities);
+            holds.add(reservation);
+            return reservation;
+        }
+
+        // Drops settled holds from the head and expires overdue ones
+        private void expireOverdue() {
+            long now = System.nanoTime();
+            Reservation head;
+            while ((head = holds.peek()) != null) {
+                if (head.state.get() == PENDING && now - head.expiresAtNanos < 0) break;
+                holds.poll();
+                head.expire();
+            }
+        }
+
+        // -1 once qty units are taken, otherwise the units that were available
+        private static int take(AtomicIntegerArray page, int index, int qty) {
+            while (true) {
+                int units = page.get(index);
+                if (units < qty) return units;
+                if (page.compareAndSet(index, units, units - qty)) return -1;
+            }
+        }
+
+        private void giveBack(int[] reservedSlots, int[] quantities, int count) {
+            Stock current = stock;
+            for (int i = 0; i < count; i++) {
+                current.page(reservedSlots[i]).addAndGet(reservedSlots[i] & PAGE_MASK, quantities[i]);
+            }
+        }
+
+        @Override
+        public void close() {
+            sweeper.shutdownNow();
+        }
+    }
+
+    // Selling prices in paise, published as immutable epochs. Prices sit in
+    // fixed-size pages and a bulk update copies only the pages it touches
+    // plus the page directory, so publishing costs O(changed SKUs) and never
+    // visits a cart. Carts remember the epoch they were priced at and reprice
+    // themselves the next time they are used.
+    static final class PriceTable {
+        private static final int PAGE_BITS = 10;
+        private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+        static final class Epoch {
+            final long number;
+            private final long[][] pages;
+
+            private Epoch(long number, long[][] pages) {
+                this.number = number;
+                this.pages = pages;
+            }
+
+            long pricePaise(int slot) {
+                return pages[slot >>> PAGE_BITS][slot & PAGE_MASK];
+            }
+        }
+
+        // productId -> slot; written only while the catalog loads, before any checkout
+        private final IntIntMap slots = new IntIntMap(16);
+        private volatile Epoch current = new Epoch(0, new long[0][]);
+
+        Epoch current() {
+            return current;
+        }
+
+        // Slot for a product, or -1 if it has no price
+        int slotOf(int productId) {
+            return slots.get(productId, -1);
+        }
+
+        long pricePaise(int productId) {
+            int slot = slotOf(productId);
+            return slot < 0 ? 0 : current.pricePaise(slot);
+        }
+
+        synchronized void ensureCapacity(int products) {
+            slots.ensureCapacity(products);
+        }
+
+        // Adds a product at its list price; call while the catalog loads, not during checkout
+        synchronized void register(int productId, long paise) {
+            int slot = slots.get(productId, -1);
+            if (slot < 0) {
+                slot = slots.size();
+                slots.put(productId, slot);
+            }
+            Epoch epoch = current;
+            long[][] pages = epoch.pages;
+            int page = slot >>> PAGE_BITS;
+            if (page == pages.length) {
+                pages = Arrays.copyOf(pages, page + 1);
+                pages[page] = new long[1 << PAGE_BITS];
+                current = epoch = new Epoch(epoch.number, pages);
+            }
+            // a new slot is not in any cart yet, so its page can be written in place
+            pages[page][slot & PAGE_MASK] = paise;
+        }
+
+        // Publishes the first count changes as the next epoch in one step
+        synchronized Epoch publish(int[] productIds, long[] paise, int count) {
+            Epoch old = current;
+            long[][] pages = old.pages.clone();
+            for (int i = 0; i < count; i++) {
+                int slot = slots.get(productIds[i], -1);
+                if (slot < 0) throw new IllegalArgumentException("unknown product " + productIds[i]);
+                int page = slot >>> PAGE_BITS;
+                if (pages[page] == old.pages[page]) pages[page] = pages[page].clone();
+                pages[page][slot & PAGE_MASK] = paise[i];
+            }
+            Epoch next = new Epoch(old.number + 1, pages);
+            current = next;
+            return next;
         }
     }
 
     // Catalog stored in ArrayList
     private final ArrayList<Product> catalog = new ArrayList<>();
 
-    // Cart: productId -> quantity
-    private final HashMap<Integer, Integer> cartQuantities = new HashMap<>();
+    // Carts for every shopper session; this console drives one session at a time
+    private final CartService carts;
+    private String sessionId = "default";
 
-    // Price map: productId -> price (also mirrors Product.price)
-    private final HashMap<Integer, Double> priceMap = new HashMap<>();
+    // Selling prices, published in epochs
+    final PriceTable prices = new PriceTable();
 
     // Helper: productId -> Product (for quick lookup)
-    private final HashMap<Integer, Product> productMap = new HashMap<>();
+    private final IntObjectMap<Product> productMap = new IntObjectMap<>(16);
+
+    // Stock per product, reserved at checkout
+    private final Inventory inventory;
 
-    private final Scanner scanner = new Scanner(System.in);
+    // Name search; built on the first search so a large catalog's names stay
+    // undecoded until someone searches, then kept current by addProductToCatalog
+    private ProductSearchIndex searchIndex;
 
-    public static void main(String[] args) {
-        ShoppingCartApp app = new ShoppingCartApp();
-        app.seedCatalog();
-        app.run();
+    private static final int PAGE_SIZE = 20;
+
+    // Commands are read line by line; in batch mode menus and catalog/cart
+    // redraws are skipped so piped command files run at full speed
+    private final BufferedReader input;
+    private final boolean interactive;
+    private int lineNumber;
+
+    ShoppingCartApp(BufferedReader input, boolean interactive) {
+        this.input = input;
+        this.interactive = interactive;
+        this.carts = CartService.fromSystemProperties(prices);
+        this.inventory = Inventory.fromSystemProperties();
+    }
+
+    public static void main(String[] args) throws IOException {
+        // --batch [file]: read commands from a file or piped stdin, buffer all output
+        // --catalog file: load products from an "id,name,price" file instead of the demo five
+        boolean batch = false;
+        String batchFile = null;
+        String catalogFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--batch")) {
+                batch = true;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) batchFile = args[++i];
+            } else if (args[i].equals("--catalog") && i + 1 < args.length) {
+                catalogFile = args[++i];
+            } else {
+                System.out.println("Usage: ShoppingCartApp [--batch [file]] [--catalog file]");
+                return;
+            }
+        }
+        BufferedReader input = batchFile != null
+                ? Files.newBufferedReader(Paths.get(batchFile), StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16);
+        if (batch) {
+            System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16),
+                    false, StandardCharsets.UTF_8));
+        }
+        HotPaths.STATS.register();
+        ShoppingCartApp app = new ShoppingCartApp(input, !batch);
+        boolean completed;
+        try {
+            if (catalogFile == null) {
+                app.seedCatalog();
+            } else {
+                app.loadCatalog(Paths.get(catalogFile));
+            }
+            completed = app.run();
+        } finally {
+            app.carts.close();
+            app.inventory.close();
+            System.out.flush();
+        }
+        if (!completed) System.exit(1);
+    }
+
+    // Next trimmed input line; like Scanner.nextLine it throws at end of input
+    private String readLine() {
+        try {
+            String line = input.readLine();
+            if (line == null) throw new NoSuchElementException("No more input");
+            lineNumber++;
+            return line.trim();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     // Populate catalog with sample items
     private void seedCatalog() {
-        addProductToCatalog(new Product(1, "T-shirt", 299.00));
-        addProductToCatalog(new Product(2, "Jeans", 999.00));
-        addProductToCatalog(new Product(3, "Sneakers", 2499.50));
-        addProductToCatalog(new Product(4, "Cap", 199.00));
-        addProductToCatalog(new Product(5, "Backpack", 1499.00));
+        addProductToCatalog(new Product(1, "T-shirt"), 29900, 50);
+        addProductToCatalog(new Product(2, "Jeans"), 99900, 30);
+        addProductToCatalog(new Product(3, "Sneakers"), 249950, 10);
+        addProductToCatalog(new Product(4, "Cap"), 19900, 100);
+        addProductToCatalog(new Product(5, "Backpack"), 149900, 20);
     }
 
-    private void addProductToCatalog(Product p) {
+    private void loadCatalog(Path file) throws IOException {
+        long start = System.nanoTime();
+        CatalogLoader loader = new CatalogLoader();
+        CatalogLoader.Batch loaded = loader.load(file);
+        List<Product> products = loaded.products;
+        int expected = catalog.size() + products.size();
+        catalog.ensureCapacity(expected);
+        prices.ensureCapacity(expected);
+        productMap.ensureCapacity(expected);
+        inventory.ensureCapacity(expected);
+        int[] added = new int[products.size()];
+        int count = 0;
+        int duplicates = 0;
+        for (int i = 0; i < products.size(); i++) {
+            Product p = products.get(i);
+            if (productMap.containsKey(p.id)) {
+                duplicates++; // first occurrence wins
+            } else {
+                listProduct(p, loaded.pricePaise[i]);
+                added[count++] = p.id;
+            }
+        }
+        // the file has no stock column, so every product starts with the same count
+        inventory.registerAll(added, count, Integer.getInteger("inventory.defaultStock", 100));
+        System.out.printf("Loaded %d products from %s in %d ms (%d malformed lines, %d duplicate IDs skipped).\n",
+                catalog.size(), file, (System.nanoTime() - start) / 1_000_000, loader.malformedLines(), duplicates);
+    }
+
+    void addProductToCatalog(Product p, long pricePaise, int stock) {
+        listProduct(p, pricePaise);
+        inventory.register(p.id, stock);
+    }
+
+    private void listProduct(Product p, long pricePaise) {
         catalog.add(p);
-        priceMap.put(p.id, p.price);
+        prices.register(p.id, pricePaise);
         productMap.put(p.id, p);
+        if (searchIndex != null) searchIndex.add(p);
     }
 
-    // Main loop
-    private void run() {
+    // Main loop; returns false if a batch stopped on a bad record
+    private boolean run() {
         System.out.println("=== Welcome to Mini Shopping Cart ===");
+        if (!carts.spillsEvictedCarts()) {
+            System.out.println("Note: cart.spillDir is not set, so carts evicted to stay under the memory budget are lost.");
+        }
 
         boolean exit = false;
         while (!exit) {
-            printMenu();
-            String choice = scanner.nextLine().trim();
+            if (interactive) printMenu();
+            String choice;
+            try {
+                choice = readLine();
+            } catch (NoSuchElementException e) {
+                break; // end of piped input
+            }
 
-            switch (choice) {
-                case "1": showCatalog(); break;
-                case "2": addItemFlow(); break;
-                case "3": viewCart(); break;
-                case "4": updateQuantityFlow(); break;
-                case "5": removeItemFlow(); break;
-                case "6": clearCart(); break;
-                case "7": checkout(); break;
-                case "8": exit = true; break;
-                default: System.out.println("Invalid choice. Enter number from 1 to 8."); break;
+            try {
+                exit = runCommand(choice);
+            } catch (InputMismatchException e) {
+                System.out.println("Batch stopped at " + e.getMessage());
+                return false;
+            } catch (NoSuchElementException e) {
+                // input ended part way through a command, which was not run
+                if (interactive) break;
+                System.out.println("Batch stopped at line " + lineNumber + ": input ended in the middle of a command");
+                return false;
             }
-            System.out.println(); // blank line for readability
+            if (interactive) System.out.println(); // blank line for readability
         }
 
         System.out.println("Thanks for visiting! Goodbye.");
+        return true;
+    }
+
+    // Runs one menu choice; returns true on Exit
+    private boolean runCommand(String choice) {
+        switch (choice) {
+            case "1": showCatalog(); break;
+            case "2": addItemFlow(); break;
+            case "3": viewCart(); break;
+            case "4": updateQuantityFlow(); break;
+            case "5": removeItemFlow(); break;
+            case "6": clearCart(); break;
+            case "7": checkout(); break;
+            case "8": return true;
+            case "9": printStats(); break;
+            case "10": searchFlow(); break;
+            case "11": bulkPriceUpdateFlow(); break;
+            case "12": switchSessionFlow(); break;
+            default: System.out.println("Invalid choice. Enter number from 1 to 12."); break;
+        }
+        return false;
+    }
+
+    private void prompt(String text) {
+        if (interactive) System.out.print(text);
+    }
+
+    // A command rejected before all of its input lines are read would leave the
+    // rest to be run as menu choices, so a batch stops at the line just read
+    private void reject(String problem) {
+        if (!interactive) throw new InputMismatchException("line " + lineNumber + ": " + problem);
+        System.out.println(problem);
     }
 
     private void printMenu() {
@@ -92,36 +1535,132 @@ public class ShoppingCartApp {
         System.out.println("6. Clear cart");
         System.out.println("7. Checkout");
         System.out.println("8. Exit");
+        System.out.println("9. Hot-path stats");
+        System.out.println("10. Search products");
+        System.out.println("11. Bulk price update");
+        System.out.println("12. Switch shopper session");
         System.out.print("Enter choice: ");
     }
 
+    private void printStats() {
+        System.out.println("--- Hot-path Stats ---");
+        HotPaths.STATS.print();
+    }
+
     private void showCatalog() {
-        System.out.println("--- Product Catalog ---");
-        System.out.printf("%-4s %-20s %10s\n", "ID", "Name", "Price (INR)");
-        for (Product p : catalog) {
-            System.out.printf("%-4d %-20s %10.2f\n", p.id, p.name, p.price);
+        showPages(catalog.size(), page -> {
+            System.out.println("--- Product Catalog ---");
+            int from = (page - 1) * PAGE_SIZE;
+            printProducts(catalog.subList(from, Math.min(catalog.size(), from + PAGE_SIZE)));
+        });
+    }
+
+    private void searchFlow() {
+        prompt("Search products: ");
+        String query = readLine();
+        if (query.isEmpty()) {
+            System.out.println("Search text cannot be empty.");
+            return;
+        }
+        if (searchIndex == null) {
+            long start = System.nanoTime();
+            ProductSearchIndex index = new ProductSearchIndex();
+            for (Product p : catalog) index.add(p);
+            searchIndex = index;
+            System.out.printf("Indexed %d products in %d ms.\n", index.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+        long start = System.nanoTime();
+        ProductSearchIndex.Result first = searchIndex.search(query, PAGE_SIZE);
+        long micros = (System.nanoTime() - start) / 1000;
+        int matches = first.matches;
+        if (matches == 0) {
+            System.out.println("No products match '" + query + "'.");
+            return;
+        }
+        System.out.println((first.exactCount ? "" : "About ") + matches + (matches == 1 ? " match" : " matches")
+                + " (" + micros + " us).");
+        if (!interactive) {
+            // a batch prints every page, so all matches are ranked once
+            List<Product> ranked = searchIndex.search(query, matches).products;
+            showPages(ranked.size(), page -> {
+                int from = (page - 1) * PAGE_SIZE;
+                printProducts(ranked.subList(from, Math.min(ranked.size(), from + PAGE_SIZE)));
+            });
+            return;
+        }
+        showPages(matches, page -> {
+            // ranking the first page * PAGE_SIZE results is cheap, so each page re-runs the query
+            List<Product> ranked = searchIndex.search(query, page * PAGE_SIZE).products;
+            printProducts(ranked.subList(Math.min(ranked.size(), (page - 1) * PAGE_SIZE), ranked.size()));
+        });
+    }
+
+    // One page of products, rendered like renderCart and written once
+    private void printProducts(List<Product> products) {
+        StringBuilder sb = new StringBuilder(48 * (products.size() + 1));
+        sb.append(String.format("%-4s %-20s %10s %6s\n", "ID", "Name", "Price (INR)", "Stock"));
+        for (Product p : products) {
+            // same layout as "%-4d %-20s %10.2f %6d\n"
+            int start = sb.length();
+            sb.append(p.id);
+            start = endColumn(sb, start, 4);
+            sb.append(p.name());
+            start = endColumn(sb, start, 20);
+            appendRupees(sb, prices.pricePaise(p.id));
+            alignRight(sb, start, 10);
+            sb.append(' ');
+            start = sb.length();
+            sb.append(inventory.available(p.id));
+            alignRight(sb, start, 6);
+            sb.append('\n');
+        }
+        System.out.print(sb);
+    }
+
+    // Shows page 1, then more pages on request while there is more than one;
+    // a batch has no one to ask, so it gets every page in order
+    private void showPages(int count, IntConsumer printPage) {
+        int pages = Math.max(1, (count + PAGE_SIZE - 1) / PAGE_SIZE);
+        if (!interactive) {
+            for (int page = 1; page <= pages; page++) printPage.accept(page);
+            return;
+        }
+        int page = 1;
+        while (true) {
+            printPage.accept(page);
+            if (pages == 1) return;
+            System.out.print("Page " + page + " of " + pages + ". Enter page number (blank to return): ");
+            String answer = readLine();
+            if (answer.isEmpty()) return;
+            try {
+                int next = Integer.parseInt(answer);
+                if (next < 1 || next > pages) throw new NumberFormatException();
+                page = next;
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid page number.");
+            }
         }
     }
 
     private void addItemFlow() {
-        showCatalog();
-        System.out.print("Enter product ID to add: ");
-        String idStr = scanner.nextLine().trim();
+        if (interactive) showCatalog();
+        prompt("Enter product ID to add: ");
+        String idStr = readLine();
         int id;
         try {
             id = Integer.parseInt(idStr);
         } catch (NumberFormatException e) {
-            System.out.println("Invalid ID. Operation cancelled.");
+            reject("Invalid ID. Operation cancelled.");
             return;
         }
 
         if (!productMap.containsKey(id)) {
-            System.out.println("Product ID not found.");
+            reject("Product ID not found.");
             return;
         }
 
-        System.out.print("Enter quantity: ");
-        String qtyStr = scanner.nextLine().trim();
+        prompt("Enter quantity: ");
+        String qtyStr = readLine();
         int qty;
         try {
             qty = Integer.parseInt(qtyStr);
@@ -131,83 +1670,127 @@ public class ShoppingCartApp {
             return;
         }
 
-        cartQuantities.put(id, cartQuantities.getOrDefault(id, 0) + qty);
-        System.out.println(qty + " x " + productMap.get(id).name + " added to cart.");
+        carts.updateCart(sessionId, cart -> cart.add(id, qty));
+        System.out.println(qty + " x " + productMap.get(id).name() + " added to cart.");
+    }
+
+    private boolean cartIsEmpty() {
+        return carts.withCart(sessionId, Cart::isEmpty);
     }
 
     private void viewCart() {
-        if (cartQuantities.isEmpty()) {
-            System.out.println("Your cart is empty.");
-            return;
-        }
+        String text = carts.withCart(sessionId, this::renderCart);
+        System.out.print(text);
+    }
 
-        System.out.println("--- Your Cart ---");
-        System.out.printf("%-4s %-20s %-8s %-12s %-12s\n", "ID", "Name", "Qty", "Unit Price", "Subtotal");
-        double total = 0.0;
-        for (Map.Entry<Integer, Integer> entry : cartQuantities.entrySet()) {
-            int id = entry.getKey();
-            int qty = entry.getValue();
-            Product p = productMap.get(id);
-            double unit = priceMap.get(id);
-            double subtotal = unit * qty;
-            total += subtotal;
-            System.out.printf("%-4d %-20s %-8d %-12.2f %-12.2f\n", id, p.name, qty, unit, subtotal);
+    // The whole cart as one string, so it reaches the console in a single write
+    String renderCart(Cart cart) {
+        if (cart.isEmpty()) return "Your cart is empty.\n";
+
+        StringBuilder sb = new StringBuilder(128 + 64 * cart.lineCount());
+        sb.append("--- Your Cart ---\n");
+        sb.append(String.format("%-4s %-20s %-8s %-12s %-12s\n", "ID", "Name", "Qty", "Unit Price", "Subtotal"));
+        for (int i = 0; i < cart.lineCount(); i++) {
+            int id = cart.idAt(i);
+            int qty = cart.quantityAt(i);
+            long unit = cart.unitPaise(id);
+            // same layout as "%-4d %-20s %-8d %-12.2f %-12.2f\n"
+            int start = sb.length();
+            sb.append(id);
+            start = endColumn(sb, start, 4);
+            sb.append(productMap.get(id).name());
+            start = endColumn(sb, start, 20);
+            sb.append(qty);
+            start = endColumn(sb, start, 8);
+            appendRupees(sb, unit);
+            start = endColumn(sb, start, 12);
+            appendRupees(sb, unit * qty);
+            padTo(sb, start + 12);
+            sb.append('\n');
         }
-        System.out.println("-------------------------------");
-        System.out.printf("Total: INR %.2f\n", total);
+        sb.append("-------------------------------\n");
+        sb.append("Total: INR ");
+        appendRupees(sb, cart.totalPaise());
+        sb.append(" (").append(cart.itemCount()).append(cart.itemCount() == 1 ? " item)\n" : " items)\n");
+        return sb.toString();
+    }
+
+    // Left-justifies the column begun at start to width, adds the separator
+    // space and returns where the next column begins
+    private static int endColumn(StringBuilder sb, int start, int width) {
+        padTo(sb, start + width);
+        sb.append(' ');
+        return sb.length();
+    }
+
+    private static void padTo(StringBuilder sb, int length) {
+        while (sb.length() < length) sb.append(' ');
+    }
+
+    // Right-justifies the column begun at start to width
+    private static void alignRight(StringBuilder sb, int start, int width) {
+        for (int pad = start + width - sb.length(); pad > 0; pad--) sb.insert(start, ' ');
+    }
+
+    // Paise as rupees with two decimals, e.g. 249950 -> 2499.50
+    private static void appendRupees(StringBuilder sb, long paise) {
+        sb.append(paise / 100).append('.');
+        long frac = paise % 100;
+        if (frac < 10) sb.append('0');
+        sb.append(frac);
     }
 
     private void updateQuantityFlow() {
-        if (cartQuantities.isEmpty()) {
-            System.out.println("Cart is empty. Nothing to update.");
+        if (cartIsEmpty()) {
+            reject("Cart is empty. Nothing to update.");
             return;
         }
-        viewCart();
-        System.out.print("Enter product ID to update: ");
+        if (interactive) viewCart();
+        prompt("Enter product ID to update: ");
         int id;
         try {
-            id = Integer.parseInt(scanner.nextLine().trim());
+            id = Integer.parseInt(readLine());
         } catch (NumberFormatException e) {
-            System.out.println("Invalid ID.");
+            reject("Invalid ID.");
             return;
         }
-        if (!cartQuantities.containsKey(id)) {
-            System.out.println("That product is not in your cart.");
+        if (!carts.withCart(sessionId, cart -> cart.contains(id))) {
+            reject("That product is not in your cart.");
             return;
         }
-        System.out.print("Enter new quantity (0 to remove): ");
+        prompt("Enter new quantity (0 to remove): ");
         int qty;
         try {
-            qty = Integer.parseInt(scanner.nextLine().trim());
+            qty = Integer.parseInt(readLine());
             if (qty < 0) throw new NumberFormatException();
         } catch (NumberFormatException e) {
             System.out.println("Invalid quantity.");
             return;
         }
-        if (qty == 0) {
-            cartQuantities.remove(id);
+        if (!carts.withCart(sessionId, cart -> cart.setQuantity(id, qty))) {
+            System.out.println("That product is not in your cart.");
+        } else if (qty == 0) {
             System.out.println("Item removed from cart.");
         } else {
-            cartQuantities.put(id, qty);
             System.out.println("Quantity updated.");
         }
     }
 
     private void removeItemFlow() {
-        if (cartQuantities.isEmpty()) {
-            System.out.println("Cart is empty. Nothing to remove.");
+        if (cartIsEmpty()) {
+            reject("Cart is empty. Nothing to remove.");
             return;
         }
-        viewCart();
-        System.out.print("Enter product ID to remove: ");
+        if (interactive) viewCart();
+        prompt("Enter product ID to remove: ");
         int id;
         try {
-            id = Integer.parseInt(scanner.nextLine().trim());
+            id = Integer.parseInt(readLine());
         } catch (NumberFormatException e) {
             System.out.println("Invalid ID.");
             return;
         }
-        if (cartQuantities.remove(id) != null) {
+        if (carts.withCart(sessionId, cart -> cart.remove(id))) {
             System.out.println("Item removed from cart.");
         } else {
             System.out.println("That product was not in your cart.");
@@ -215,37 +1798,130 @@ public class ShoppingCartApp {
     }
 
     private void clearCart() {
-        cartQuantities.clear();
+        carts.updateCart(sessionId, Cart::clear);
         System.out.println("Cart cleared.");
     }
 
+    // What one checkout showed, reserved and charged, all read under a single
+    // hold of the cart's lock so another thread on the session cannot change
+    // the cart in between
+    private static final class CheckoutView {
+        final String cartText;
+        final Inventory.Reservation reservation; // null if a line was short
+        final Inventory.OutOfStockException shortage;
+        final long totalPaise;
+
+        CheckoutView(String cartText, Inventory.Reservation reservation, Inventory.OutOfStockException shortage,
+                long totalPaise) {
+            this.cartText = cartText;
+            this.reservation = reservation;
+            this.shortage = shortage;
+            this.totalPaise = totalPaise;
+        }
+    }
+
+    private CheckoutView startCheckout(Cart cart) {
+        if (cart.isEmpty()) return null;
+        String text = renderCart(cart);
+        // stock is held while the shopper decides; unconfirmed holds expire
+        try {
+            return new CheckoutView(text, inventory.reserve(cart), null, cart.totalPaise());
+        } catch (Inventory.OutOfStockException e) {
+            return new CheckoutView(text, null, e, cart.totalPaise());
+        }
+    }
+
     private void checkout() {
-        if (cartQuantities.isEmpty()) {
-            System.out.println("Cart is empty. Add something first.");
+        // time spent waiting for the shopper's answer is excluded from the stats
+        long start = System.nanoTime();
+        CheckoutView view = carts.withCart(sessionId, this::startCheckout);
+        if (view == null) {
+            reject("Cart is empty. Add something first.");
+            return;
+        }
+        System.out.print(view.cartText);
+        if (view.reservation == null) {
+            Inventory.OutOfStockException e = view.shortage;
+            HotPaths.CHECKOUT.recordNanos(System.nanoTime() - start);
+            reject("Only " + e.available + " x " + productMap.get(e.productId).name()
+                    + " left in stock. Checkout cancelled.");
             return;
         }
-        viewCart();
-        double total = calculateTotal();
-        System.out.printf("Proceed to checkout. Grand total = INR %.2f\n", total);
-        System.out.print("Confirm purchase? (yes/no): ");
-        String confirm = scanner.nextLine().trim().toLowerCase();
+        Inventory.Reservation reservation = view.reservation;
+        StringBuilder line = new StringBuilder("Proceed to checkout. Grand total = INR ");
+        appendRupees(line, view.totalPaise);
+        System.out.println(line);
+        prompt("Confirm purchase? (yes/no): ");
+        long beforePrompt = System.nanoTime() - start;
+        String confirm = readLine().toLowerCase();
+        start = System.nanoTime();
         if (confirm.equals("yes") || confirm.equals("y")) {
             // In real app, you'd process payment here. We'll simulate success.
-            System.out.println("Payment successful. Thank you for your purchase!");
-            cartQuantities.clear();
+            if (reservation.confirm()) {
+                System.out.println("Payment successful. Thank you for your purchase!");
+                carts.updateCart(sessionId, Cart::clear);
+            } else {
+                System.out.println("Your stock reservation expired. Please check out again.");
+            }
         } else {
+            reservation.release();
             System.out.println("Checkout cancelled.");
         }
+        HotPaths.CHECKOUT.recordNanos(beforePrompt + System.nanoTime() - start);
+    }
+
+    // Reads "productId newPrice" lines until a blank one, then publishes them all as one price epoch
+    private void bulkPriceUpdateFlow() {
+        if (interactive) {
+            System.out.println("Enter price changes as 'productId newPrice', one per line; blank line to publish.");
+        }
+        int[] ids = new int[16];
+        long[] paise = new long[16];
+        int count = 0;
+        while (true) {
+            String line = readLine();
+            if (line.isEmpty()) break;
+            String[] parts = line.split("\\s+");
+            try {
+                if (parts.length != 2) throw new NumberFormatException();
+                int id = Integer.parseInt(parts[0]);
+                long price = CatalogLoader.parsePaise(parts[1]);
+                if (price < 0) throw new NumberFormatException();
+                if (!productMap.containsKey(id)) {
+                    System.out.println("Unknown product ID " + id + ", line skipped.");
+                    continue;
+                }
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                    paise = Arrays.copyOf(paise, count * 2);
+                }
+                ids[count] = id;
+                paise[count] = price;
+                count++;
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid line '" + line + "', skipped.");
+            }
+        }
+        if (count == 0) {
+            System.out.println("No price changes entered.");
+            return;
+        }
+        long start = System.nanoTime();
+        PriceTable.Epoch epoch = prices.publish(ids, paise, count);
+        System.out.printf("Published price epoch %d with %d changes in %d us.\n",
+                epoch.number, count, (System.nanoTime() - start) / 1000);
     }
 
-    private double calculateTotal() {
-        double total = 0.0;
-        for (Map.Entry<Integer, Integer> entry : cartQuantities.entrySet()) {
-            int id = entry.getKey();
-            int qty = entry.getValue();
-            double unit = priceMap.get(id);
-            total += unit * qty;
+    private void switchSessionFlow() {
+        prompt("Enter shopper session ID: ");
+        String id = readLine();
+        if (id.isEmpty()) {
+            System.out.println("Session ID cannot be empty.");
+            return;
         }
-        return total;
+        sessionId = id;
+        System.out.println("Now shopping as '" + sessionId + "' (" + carts.sessionCount() + " active carts, "
+                + carts.evictionCount() + " evicted, " + carts.reloadCount() + " reloaded, "
+                + carts.droppedCount() + " dropped).");
     }
 }
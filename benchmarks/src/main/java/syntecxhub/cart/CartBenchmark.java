@@ -0,0 +1,81 @@
+package syntecxhub.cart;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cart totals and the cart view for carts of 1 to 1M lines drawn from a
+// catalog of at least 100k products, twice the cart size for big carts. The running total makes add/remove independent of
+// the cart size; a price change reprices every line once.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CartBenchmark {
+    private static final int MIN_CATALOG = 100_000;
+
+    @Param({"1", "10", "100", "1000", "10000", "100000", "1000000"})
+    int lines;
+
+    private int catalog;
+    private ShoppingCartApp app;
+    private ShoppingCartApp.Cart cart;
+    private int[] changedId;
+    private long[] changedPaise;
+    private int outsideCart;
+
+    @Setup
+    public void setUp() {
+        app = new ShoppingCartApp(new BufferedReader(new StringReader("")), false);
+        catalog = Math.max(MIN_CATALOG, 2 * lines);
+        for (int id = 1; id <= catalog; id++) {
+            app.addProductToCatalog(new ShoppingCartApp.Product(id, "Product " + id), 10_000 + id % 5000, 100);
+        }
+        cart = new ShoppingCartApp.Cart(app.prices);
+        Random random = new Random(42);
+        while (cart.lineCount() < lines) {
+            cart.add(1 + random.nextInt(catalog), 1 + random.nextInt(3));
+        }
+        do {
+            outsideCart = 1 + random.nextInt(catalog);
+        } while (cart.contains(outsideCart));
+        changedId = new int[] { cart.idAt(0) };
+        changedPaise = new long[] { 0 };
+    }
+
+    // What calculateTotal used to recompute on every call
+    @Benchmark
+    public long addAndRemoveLine() {
+        cart.add(outsideCart, 2);
+        cart.remove(outsideCart);
+        return cart.totalPaise();
+    }
+
+    @Benchmark
+    public long priceChangeAndReprice() {
+        changedPaise[0] = 10_000 + (changedPaise[0] + 1) % 5000;
+        app.prices.publish(changedId, changedPaise, 1);
+        cart.refreshPrices();
+        return cart.totalPaise();
+    }
+
+    @Benchmark
+    public String viewCart() {
+        return app.renderCart(cart);
+    }
+}
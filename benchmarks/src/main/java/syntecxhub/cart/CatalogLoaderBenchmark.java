@@ -0,0 +1,71 @@
+package syntecxhub.cart;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Startup cost of --catalog on synthetic files of 100k to 5M products: the
+// mapped, parallel CatalogLoader alone and followed by filling the app's
+// catalog, price and stock tables, against reading lines into String names.
+// Each iteration is one cold load; the file itself stays in the page cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CatalogLoaderBenchmark {
+    @Param({"100000", "1000000", "5000000"})
+    int products;
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("catalog-bench", ".csv");
+        Catalogs.writeCsv(file, products);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public ShoppingCartApp.CatalogLoader.Batch mappedLoad() throws IOException {
+        return new ShoppingCartApp.CatalogLoader().load(file);
+    }
+
+    // What loadCatalog does, apart from the duplicate check and the message
+    @Benchmark
+    public ShoppingCartApp mappedLoadIntoApp() throws IOException {
+        ShoppingCartApp app = new ShoppingCartApp(new BufferedReader(new StringReader("")), false);
+        ShoppingCartApp.CatalogLoader.Batch loaded = new ShoppingCartApp.CatalogLoader().load(file);
+        for (int i = 0; i < loaded.products.size(); i++) {
+            app.addProductToCatalog(loaded.products.get(i), loaded.pricePaise[i], 100);
+        }
+        return app;
+    }
+
+    @Benchmark
+    public List<ShoppingCartApp.Product> eagerLoad() throws IOException {
+        return Catalogs.readEager(file, new long[products]);
+    }
+}
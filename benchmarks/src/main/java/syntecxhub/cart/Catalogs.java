@@ -0,0 +1,53 @@
+package syntecxhub.cart;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Synthetic catalog files shared by the cart benchmarks and load tests
+final class Catalogs {
+    private static final String[] WORDS = { "Cotton", "Denim", "Running", "Leather", "Travel", "Classic",
+            "Slim", "Wool", "Canvas", "Sports", "Linen", "Winter" };
+    private static final String[] KINDS = { "T-shirt", "Jeans", "Sneakers", "Cap", "Backpack", "Jacket",
+            "Socks", "Belt", "Scarf", "Shorts" };
+
+    private Catalogs() { }
+
+    static String name(int id) {
+        return WORDS[id % WORDS.length] + " " + KINDS[id / WORDS.length % KINDS.length] + " " + id;
+    }
+
+    // "id,name,price" file with a header line and ids 1..size
+    static void writeCsv(Path file, int size) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("id,name,price\n");
+            for (int id = 1; id <= size; id++) {
+                w.write(id + "," + name(id) + "," + (199 + id % 5000) + "." + (id % 100 < 10 ? "0" : "") + id % 100);
+                w.write('\n');
+            }
+        }
+    }
+
+    // The file read line by line with every name built as a String up front:
+    // the obvious loader that CatalogLoader is measured against
+    static List<ShoppingCartApp.Product> readEager(Path file, long[] pricePaise) throws IOException {
+        List<ShoppingCartApp.Product> products = new ArrayList<>();
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            r.readLine();
+            String line;
+            while ((line = r.readLine()) != null) {
+                int firstComma = line.indexOf(',');
+                int lastComma = line.lastIndexOf(',');
+                int id = Integer.parseInt(line.substring(0, firstComma).trim());
+                pricePaise[products.size()] = ShoppingCartApp.CatalogLoader.parsePaise(line.substring(lastComma + 1));
+                products.add(new ShoppingCartApp.Product(id, line.substring(firstComma + 1, lastComma).trim()));
+            }
+        }
+        return products;
+    }
+}
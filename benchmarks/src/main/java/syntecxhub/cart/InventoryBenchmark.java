@@ -0,0 +1,121 @@
+package syntecxhub.cart;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Checkouts reserving and releasing stock during a sale, with every cart
+// drawn from 1, 4 or 10k SKUs. Inventory takes one CAS per line on the
+// product's own counter; the global-lock version checks and takes every
+// line under one monitor. Run with -t 1, -t 2, -t 4 ... to see how each
+// scales with threads (needs a multi-core machine); with one hot SKU every
+// checkout contends on the same counter either way.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryBenchmark {
+    private static final int CARTS_PER_SHOPPER = 64;
+    private static final int STOCK = Integer.MAX_VALUE / 4;
+
+    @Param({"1", "4", "10000"})
+    int skus;
+
+    private final ShoppingCartApp.PriceTable prices = new ShoppingCartApp.PriceTable();
+    private ShoppingCartApp.Inventory inventory;
+    private LockedStock locked;
+
+    // Carts of one to three lines, prebuilt so only the reservation is timed
+    @State(Scope.Thread)
+    public static class Shopper {
+        ShoppingCartApp.Cart[] carts;
+        int next;
+
+        @Setup
+        public void setUp(InventoryBenchmark bench) {
+            SplittableRandom random = new SplittableRandom();
+            carts = new ShoppingCartApp.Cart[CARTS_PER_SHOPPER];
+            for (int i = 0; i < carts.length; i++) {
+                carts[i] = new ShoppingCartApp.Cart(bench.prices);
+                int lines = 1 + random.nextInt(Math.min(3, bench.skus));
+                while (carts[i].lineCount() < lines) {
+                    carts[i].add(1 + random.nextInt(bench.skus), 1 + random.nextInt(2));
+                }
+            }
+        }
+
+        ShoppingCartApp.Cart nextCart() {
+            return carts[next++ & (CARTS_PER_SHOPPER - 1)];
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        // a short hold keeps the sweeper trimming released holds off the queue
+        inventory = new ShoppingCartApp.Inventory(Duration.ofMillis(50));
+        prices.ensureCapacity(skus);
+        int[] ids = new int[skus];
+        for (int id = 1; id <= skus; id++) {
+            ids[id - 1] = id;
+            prices.register(id, 10_000);
+        }
+        inventory.registerAll(ids, skus, STOCK);
+        locked = new LockedStock(skus);
+    }
+
+    @TearDown
+    public void tearDown() {
+        inventory.close();
+    }
+
+    @Benchmark
+    public void reserveAndRelease(Shopper shopper) {
+        inventory.reserve(shopper.nextCart()).release();
+    }
+
+    @Benchmark
+    public void globalLockReserveAndRelease(Shopper shopper) {
+        ShoppingCartApp.Cart cart = shopper.nextCart();
+        locked.reserve(cart);
+        locked.release(cart);
+    }
+
+    // All-or-nothing reservation under one lock, the obvious alternative
+    static final class LockedStock {
+        private final int[] available;
+
+        LockedStock(int skus) {
+            available = new int[skus + 1];
+            Arrays.fill(available, STOCK);
+        }
+
+        synchronized void reserve(ShoppingCartApp.Cart cart) {
+            for (int i = 0; i < cart.lineCount(); i++) {
+                if (available[cart.idAt(i)] < cart.quantityAt(i)) {
+                    throw new IllegalStateException("out of stock: " + cart.idAt(i));
+                }
+            }
+            for (int i = 0; i < cart.lineCount(); i++) available[cart.idAt(i)] -= cart.quantityAt(i);
+        }
+
+        synchronized void release(ShoppingCartApp.Cart cart) {
+            for (int i = 0; i < cart.lineCount(); i++) available[cart.idAt(i)] += cart.quantityAt(i);
+        }
+    }
+}
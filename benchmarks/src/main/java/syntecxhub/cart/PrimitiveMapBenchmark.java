@@ -0,0 +1,93 @@
+package syntecxhub.cart;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The int-keyed maps behind carts, prices and products against the boxed
+// HashMaps they replaced, from a cart-sized table to a 1M-SKU catalog.
+// Lookups hit random ids; the quantity update is what Cart.add does.
+// PrimitiveMapFootprintTest measures the heap each one takes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PrimitiveMapBenchmark {
+    private static final int PROBES = 1 << 12;
+
+    @Param({"100", "10000", "1000000"})
+    int size;
+
+    private ShoppingCartApp.IntIntMap quantities;
+    private ShoppingCartApp.IntObjectMap<ShoppingCartApp.Product> products;
+    private HashMap<Integer, Integer> boxedQuantities;
+    private HashMap<Integer, ShoppingCartApp.Product> boxedProducts;
+    private final int[] ids = new int[PROBES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        quantities = new ShoppingCartApp.IntIntMap(size);
+        products = new ShoppingCartApp.IntObjectMap<>(size);
+        boxedQuantities = new HashMap<>();
+        boxedProducts = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            int id = 100_000 + i * 7;
+            ShoppingCartApp.Product p = new ShoppingCartApp.Product(id, "Product " + id);
+            quantities.put(id, 1 + i % 5);
+            products.put(id, p);
+            boxedQuantities.put(id, 1 + i % 5);
+            boxedProducts.put(id, p);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < PROBES; i++) {
+            ids[i] = 100_000 + random.nextInt(size) * 7;
+        }
+    }
+
+    @Benchmark
+    public int quantityGet() {
+        return quantities.get(ids[next++ & (PROBES - 1)], 0);
+    }
+
+    @Benchmark
+    public int boxedQuantityGet() {
+        return boxedQuantities.get(ids[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public void quantityAdd() {
+        int id = ids[next++ & (PROBES - 1)];
+        quantities.put(id, (quantities.get(id, 0) + 1) & 0xff);
+    }
+
+    @Benchmark
+    public void boxedQuantityAdd() {
+        int id = ids[next++ & (PROBES - 1)];
+        boxedQuantities.put(id, (boxedQuantities.getOrDefault(id, 0) + 1) & 0xff);
+    }
+
+    @Benchmark
+    public ShoppingCartApp.Product productGet() {
+        return products.get(ids[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public ShoppingCartApp.Product boxedProductGet() {
+        return boxedProducts.get(ids[next++ & (PROBES - 1)]);
+    }
+}
@@ -0,0 +1,71 @@
+package syntecxhub.restaurant;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Bills for orders from a single line up to a 1M-line tab.
+// renderBill formats into the per-thread buffer; generateBill also writes
+// it to System.out, which is sent to a null stream here.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BillBenchmark {
+    @Param({"1", "10", "100", "1000", "10000", "100000", "1000000"})
+    int lines;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Menu menu = new Menu();
+        order = new Order(1);
+        for (int i = 0; i < lines; i++) {
+            MenuItem item = menu.addItem("Item " + i, 10_000 + 25 * i);
+            order.addOrderItem(new OrderItem(item, 1 + i % 3));
+        }
+    }
+
+    @Benchmark
+    public int renderBill() {
+        BillRenderer renderer = BillRenderer.forCurrentThread();
+        renderer.reset();
+        order.renderBill(renderer);
+        return renderer.contents().length();
+    }
+
+    // renderBill plus the timing generateBill wraps around it
+    @Benchmark
+    public int renderBillTimed() {
+        long start = System.nanoTime();
+        int length = renderBill();
+        HotPaths.GENERATE_BILL.recordSince(start);
+        return length;
+    }
+
+    @Benchmark
+    public void generateBill() {
+        order.generateBill();
+    }
+
+    @Benchmark
+    public long grandTotal() {
+        return order.getGrandTotalPaise();
+    }
+}
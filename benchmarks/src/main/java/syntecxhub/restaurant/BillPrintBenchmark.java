@@ -0,0 +1,115 @@
+package syntecxhub.restaurant;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Printing a batch of 10-line bills with BillRenderer against the old
+// generateBill, which built each line by concatenation and printed it
+// with its own println. Output goes to /dev/null through a stream set up
+// like System.out (autoflush, small buffer), so every flush is a real
+// write call; the channel case is the bulk file write behind option 13.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BillPrintBenchmark {
+    private static final int LINES = 10;
+
+    @Param({"1", "1000"})
+    int bills;
+
+    private final List<Order> orders = new ArrayList<>();
+    private PrintStream stdout;
+    private FileChannel channel;
+
+    @Setup
+    public void setUp() throws IOException {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Menu menu = new Menu();
+        MenuItem[] items = new MenuItem[LINES];
+        for (int i = 0; i < LINES; i++) {
+            items[i] = menu.addItem("Dish " + i, 12_000 + 750 * i);
+        }
+        for (int table = 1; table <= bills; table++) {
+            Order order = new Order(table);
+            for (MenuItem item : items) {
+                order.addOrderItem(new OrderItem(item, 1 + table % 3));
+            }
+            orders.add(order);
+        }
+        stdout = new PrintStream(new BufferedOutputStream(new FileOutputStream("/dev/null"), 128), true,
+                StandardCharsets.UTF_8);
+        channel = FileChannel.open(Paths.get("/dev/null"), StandardOpenOption.WRITE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        stdout.close();
+        channel.close();
+    }
+
+    @Benchmark
+    public void printlnPerLine() {
+        for (Order order : orders) {
+            printLegacy(order, stdout);
+        }
+    }
+
+    @Benchmark
+    public void rendererToStream() {
+        BillRenderer renderer = BillRenderer.forCurrentThread();
+        renderer.reset();
+        renderer.renderAll(orders);
+        renderer.writeTo(stdout);
+    }
+
+    @Benchmark
+    public void rendererToChannel() throws IOException {
+        BillRenderer renderer = BillRenderer.forCurrentThread();
+        renderer.reset();
+        renderer.renderAll(orders);
+        renderer.writeTo(channel);
+    }
+
+    // generateBill before BillRenderer
+    private static void printLegacy(Order order, PrintStream out) {
+        long subtotalPaise = order.getSubtotalPaise();
+        long gstPaise = order.getGstPaise();
+        out.println("\n========== BILL ==========");
+        out.println("Table: " + order.getTableNo());
+        for (OrderItem oi : order.copyLines()) {
+            out.println(oi.getName() + " x " + oi.getQuantity() +
+                " = ₹" + Money.format(oi.getTotalPaise()));
+        }
+        out.println("--------------------------");
+        out.println("Subtotal: ₹" + Money.format(subtotalPaise));
+        out.println("GST (5%): ₹" + Money.format(gstPaise));
+        out.println("Grand Total: ₹" + Money.format(subtotalPaise + gstPaise));
+        out.println("==========================");
+    }
+}
@@ -0,0 +1,126 @@
+package syntecxhub.restaurant;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The cost of the arithmetic: subtotal plus 5% GST over every line of an
+// N-line bill, in integer paise (paise), in the doubles it replaced
+// (doubles) and in BigDecimal (bigDecimal). All three walk the same lines.
+//
+// Separately, what Order's running totals buy: a bill reads sums kept
+// current on every change, which costs the same for any N
+// (runningTotalsRead), one added and removed line is one update each
+// (runningTotalsAddAndRemoveLine), and a rule change reprices every line
+// (runningTotalsReprice). These are O(1) features, not arithmetic costs,
+// so compare them with each other rather than with the walks above.
+// Run with -prof gc to see the allocations per bill.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BillingMathBenchmark {
+    private static final long GST_BPS = 500;
+    private static final double GST_RATE = 0.05;
+    private static final BigDecimal GST = new BigDecimal("0.05");
+    private static final List<PricingRule> RULES = PricingRules.defaultRules();
+
+    @Param({"10", "100", "1000"})
+    int lines;
+
+    private PricingRules pricing;
+    private Order order;
+    private MenuItem extra;
+    private long[] paisePrices;
+    private double[] prices;
+    private BigDecimal[] decimalPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        paisePrices = new long[lines];
+        prices = new double[lines];
+        decimalPrices = new BigDecimal[lines];
+        quantities = new int[lines];
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Menu menu = new Menu();
+        pricing = new PricingRules();
+        order = new Order(1, pricing);
+        for (int i = 0; i < lines; i++) {
+            long paise = 9_999 + 1_250L * i;
+            paisePrices[i] = paise;
+            prices[i] = paise / 100.0;
+            decimalPrices[i] = BigDecimal.valueOf(paise, 2);
+            quantities[i] = 1 + i % 4;
+            order.addOrderItem(new OrderItem(menu.addItem("Dish " + i, paise), quantities[i]));
+        }
+        extra = menu.addItem("Extra", 4_950);
+        order.getGrandTotalPaise();
+    }
+
+    @Benchmark
+    public long paise() {
+        long subtotal = 0;
+        for (int i = 0; i < lines; i++) {
+            subtotal += paisePrices[i] * quantities[i];
+        }
+        long gst = Money.applyRate(subtotal, GST_BPS);
+        return subtotal + gst;
+    }
+
+    @Benchmark
+    public long runningTotalsRead() {
+        return order.getGrandTotalPaise();
+    }
+
+    @Benchmark
+    public long runningTotalsAddAndRemoveLine() {
+        order.addOrderItem(new OrderItem(extra, 1));
+        order.removeOrderItem(extra.getId(), 1);
+        return order.getGrandTotalPaise();
+    }
+
+    @Benchmark
+    public long runningTotalsReprice() {
+        pricing.setRules(RULES);
+        return order.getGrandTotalPaise();
+    }
+
+    // The bill math before the switch to paise
+    @Benchmark
+    public double doubles() {
+        double subtotal = 0;
+        for (int i = 0; i < lines; i++) {
+            subtotal += prices[i] * quantities[i];
+        }
+        double gst = subtotal * GST_RATE;
+        return subtotal + gst;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            subtotal = subtotal.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        BigDecimal gst = subtotal.multiply(GST).setScale(2, RoundingMode.HALF_UP);
+        return subtotal.add(gst);
+    }
+}
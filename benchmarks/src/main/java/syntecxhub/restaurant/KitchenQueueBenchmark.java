@@ -0,0 +1,72 @@
+package syntecxhub.restaurant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Several waiters publishing kitchen tickets while one display drains
+// them in batches of up to 64. The publish score is tickets/sec offered
+// to the ring and the tickets counter is tickets/sec delivered to the
+// display. Publishing uses tryPublish, since a waiter blocked in publish
+// on a full ring would never return once JMH stops the display; the
+// difference is the offers that found the ring full, where publish waits.
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KitchenQueueBenchmark {
+    private KitchenQueue queue;
+    private KitchenTicket ticket;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Display {
+        final List<KitchenTicket> batch = new ArrayList<>(64);
+        public long tickets;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tickets = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        queue = new KitchenQueue(KitchenQueue.DEFAULT_CAPACITY);
+        ticket = new KitchenTicket(7, "Paneer Tikka", 2, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    @Group("pipeline")
+    @GroupThreads(3)
+    public boolean publish() {
+        return queue.tryPublish(ticket);
+    }
+
+    @Benchmark
+    @Group("pipeline")
+    @GroupThreads(1)
+    public int drain(Display display) {
+        display.batch.clear();
+        int taken = queue.drainTo(display.batch, 64);
+        display.tickets += taken;
+        return taken;
+    }
+}
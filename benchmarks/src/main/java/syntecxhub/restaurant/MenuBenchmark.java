@@ -0,0 +1,72 @@
+package syntecxhub.restaurant;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Menu lookups and edits at menu sizes from a cafe board to a 1M-item catalogue.
+// Lookups read the current snapshot; an edit copies one page of each index
+// plus the page arrays, so edits stay close to flat as the menu grows.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MenuBenchmark {
+    private static final int PROBES = 1 << 12;
+
+    @Param({"10", "100", "1000", "10000", "100000", "1000000"})
+    int size;
+
+    private Menu menu;
+    private final int[] ids = new int[PROBES];
+    private final String[] names = new String[PROBES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        menu = new Menu();
+        for (int i = 0; i < size; i++) {
+            menu.addItem("Item " + i, 10_000 + i);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < PROBES; i++) {
+            int n = random.nextInt(size);
+            names[i] = "Item " + n;
+            ids[i] = menu.getItemByName(names[i]).getId();
+        }
+    }
+
+    @Benchmark
+    public MenuItem getItemById() {
+        return menu.getItemById(ids[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public MenuItem getItemByName() {
+        return menu.getItemByName(names[next++ & (PROBES - 1)]);
+    }
+
+    // A remove on its own would empty the menu, so each operation puts the item back
+    @Benchmark
+    public MenuItem removeAndReAddItem() {
+        String name = names[next++ & (PROBES - 1)];
+        menu.removeItem(name);
+        return menu.addItem(name, 10_000);
+    }
+}
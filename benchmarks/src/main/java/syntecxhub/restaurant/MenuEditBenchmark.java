@@ -0,0 +1,92 @@
+package syntecxhub.restaurant;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Waiters reading a 1000-item menu while a manager keeps editing it.
+// snapshot: the copy-on-write Menu, where readers never wait for an edit.
+// locked: the same map behind one lock, the fix we would have had
+// otherwise. Three readers per editor; change with -tg 1,1 / -tg 7,1 ...
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MenuEditBenchmark {
+    private static final int ITEMS = 1000;
+
+    private Menu menu;
+    private final LinkedHashMap<Integer, MenuItem> locked = new LinkedHashMap<>();
+    private int[] ids;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        menu = new Menu();
+        ids = new int[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            MenuItem item = menu.addItem("Dish " + i, 10_000 + i);
+            ids[i] = item.getId();
+            locked.put(item.getId(), item);
+        }
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(3)
+    public MenuItem snapshotRead(Cursor cursor) {
+        return menu.getItemById(ids[cursor.random.nextInt(ITEMS)]);
+    }
+
+    // Removed and added back under the same id, so readers keep finding it
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public void snapshotEdit(Cursor cursor) {
+        MenuItem item = menu.getItemById(ids[cursor.random.nextInt(ITEMS)]);
+        if (item == null) return;
+        menu.restoreRemove(item.getId());
+        menu.restoreItem(item);
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public MenuItem lockedRead(Cursor cursor) {
+        synchronized (locked) {
+            return locked.get(ids[cursor.random.nextInt(ITEMS)]);
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedEdit(Cursor cursor) {
+        synchronized (locked) {
+            MenuItem item = locked.remove(ids[cursor.random.nextInt(ITEMS)]);
+            if (item != null) locked.put(item.getId(), item);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package syntecxhub.restaurant;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Waiters entering orders against a shared OrderEngine. Run with -t 1,
+// -t 2, -t 4 ... to see how throughput scales with threads; with more
+// tables than threads the per-table locks are rarely contended.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderEngineBenchmark {
+    private static final int MENU_ITEMS = 50;
+
+    @Param({"1", "64"})
+    int tables;
+
+    private OrderEngine engine;
+    private MenuItem[] items;
+
+    @State(Scope.Thread)
+    public static class Waiter {
+        final SplittableRandom random = new SplittableRandom();
+        int bills;
+    }
+
+    @Setup
+    public void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Menu menu = new Menu();
+        items = new MenuItem[MENU_ITEMS];
+        for (int i = 0; i < MENU_ITEMS; i++) {
+            items[i] = menu.addItem("Dish " + i, 15_000 + 500 * i);
+        }
+        engine = new OrderEngine();
+    }
+
+    // Nobody reads the kitchen display here, so empty the board between
+    // iterations to keep the tickets from filling the heap
+    @TearDown(Level.Iteration)
+    public void clearKitchen() {
+        List<KitchenTicket> sink = new ArrayList<>(1 << 16);
+        while (engine.getKitchen().take(sink, 1 << 16) > 0) sink.clear();
+    }
+
+    @Benchmark
+    public void addOrderItem(Waiter waiter) {
+        engine.addOrderItem(1 + waiter.random.nextInt(tables),
+                new OrderItem(items[waiter.random.nextInt(MENU_ITEMS)], 1));
+    }
+
+    // One bill printed for every four items ordered; the bills go to a null stream
+    @Benchmark
+    public boolean addOrderItemAndBill(Waiter waiter) {
+        int table = 1 + waiter.random.nextInt(tables);
+        engine.addOrderItem(table, new OrderItem(items[waiter.random.nextInt(MENU_ITEMS)], 1));
+        return (++waiter.bills & 3) == 0 && engine.generateBill(table);
+    }
+}
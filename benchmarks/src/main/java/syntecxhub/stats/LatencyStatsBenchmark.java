@@ -0,0 +1,56 @@
+package syntecxhub.stats;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// What timing a hot path costs: the two System.nanoTime calls plus one
+// record, alone and with several threads recording into the same stats.
+// BillBenchmark.renderBillTimed shows the same cost on a real path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LatencyStatsBenchmark {
+    private final LatencyStats stats = new LatencyStats("bench");
+    private long nanos = 1;
+
+    @Benchmark
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Benchmark
+    public void recordNanos() {
+        // spread samples over the buckets a real path hits, 1 ns to ~1 ms
+        nanos = (nanos * 31 + 7) & ((1 << 20) - 1);
+        stats.recordNanos(nanos);
+    }
+
+    @Benchmark
+    public void recordSince() {
+        stats.recordSince(System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordSinceFourThreads() {
+        stats.recordSince(System.nanoTime());
+    }
+
+    @Benchmark
+    public long percentile() {
+        return stats.percentileNanos(99);
+    }
+}
@@ -0,0 +1,41 @@
+package syntecxhub.students;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Synthetic rosters shared by the student benchmarks and load tests
+final class Rosters {
+    private static final String[] COURSES = { "Computer Science", "Mathematics", "Physics", "Chemistry",
+            "Biology", "Economics", "History", "English" };
+
+    private Rosters() { }
+
+    static Student student(int id) {
+        return new Student(id, "Student " + id, 18 + id % 10, email(id), COURSES[id % COURSES.length]);
+    }
+
+    static String email(int id) {
+        return "student" + id + "@example.edu";
+    }
+
+    static StudentRepository repository(int size) {
+        StudentRepository repo = new StudentRepository();
+        for (int id = 1; id <= size; id++) {
+            repo.add(student(id));
+        }
+        return repo;
+    }
+
+    // students.csv with ids 1..size, in the format saveToFile used to write
+    static void writeCsv(Path file, int size) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int id = 1; id <= size; id++) {
+                w.write(StudentCsv.format(student(id)));
+                w.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package syntecxhub.students;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Reading students.csv into Student objects, for 1000 and 1M rows: the
+// mapped, parallel StudentCsv.load, the same loader followed by a pass
+// reading every name and course (the parser already decoded them, so this
+// is the cost of walking the loaded roster), a line reader calling
+// Student.fromCSV, and the split-and-trim loop loadFromFile used to run.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StudentCsvBenchmark {
+    @Param({"1000", "1000000"})
+    int rows;
+
+    private Path csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        csv = Files.createTempFile("students-bench", ".csv");
+        Rosters.writeCsv(csv, rows);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(csv);
+    }
+
+    @Benchmark
+    public List<Student> mappedLoad() throws IOException {
+        return StudentCsv.load(csv).students;
+    }
+
+    @Benchmark
+    public long mappedLoadReadingNames() throws IOException {
+        long chars = 0;
+        for (Student s : StudentCsv.load(csv).students) {
+            chars += s.getName().length() + s.getCourse().length();
+        }
+        return chars;
+    }
+
+    @Benchmark
+    public List<Student> lineReaderFromCSV() throws IOException {
+        List<Student> students = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Student s = Student.fromCSV(line);
+                if (s != null) students.add(s);
+            }
+        }
+        return students;
+    }
+
+    @Benchmark
+    public List<Student> legacySplit() throws IOException {
+        List<Student> students = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Student s = legacyFromCSV(line);
+                if (s != null) students.add(s);
+            }
+        }
+        return students;
+    }
+
+    // Student.fromCSV before the quoting-aware parser
+    private static Student legacyFromCSV(String csvLine) {
+        String[] parts = csvLine.split(",", -1);
+        if (parts.length < 5) return null;
+        try {
+            int id = Integer.parseInt(parts[0].trim());
+            String name = parts[1].trim();
+            int age = Integer.parseInt(parts[2].trim());
+            String email = parts[3].trim();
+            String course = parts[4].trim();
+            return new Student(id, name, age, email, course);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
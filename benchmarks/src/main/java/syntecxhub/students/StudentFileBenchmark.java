@@ -0,0 +1,96 @@
+package syntecxhub.students;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// What loadFromFile and saveToFile do at startup and on Save, for rosters of
+// 10 to 1M students: load students.csv or students.bin into a repository,
+// append one change to the log (an fsync), and rewrite the binary snapshot
+// the way a compaction does.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StudentFileBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    int size;
+
+    private Path dir;
+    private Path csv;
+    private Path bin;
+    private StudentRepository repo;
+    private StudentStore store;
+    private Student edited;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("student-bench");
+        csv = dir.resolve("students.csv");
+        bin = dir.resolve("students.bin");
+        Rosters.writeCsv(csv, size);
+        repo = Rosters.repository(size);
+        StudentBinary.write(bin, repo.all());
+        store = new StudentStore(dir.resolve("log-only.csv").toString());
+        edited = repo.findById(1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (var files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) Files.delete(f);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public StudentRepository loadCsv() throws IOException {
+        StudentRepository loaded = new StudentRepository();
+        for (Student s : StudentCsv.load(csv).students) {
+            loaded.add(s);
+        }
+        return loaded;
+    }
+
+    // Indexes are built on the first lookup by email or course, so include that
+    @Benchmark
+    public StudentRepository loadBinary() throws IOException {
+        StudentRepository loaded = new StudentRepository();
+        StudentBinary snapshot = StudentBinary.open(bin);
+        for (int i = 0; i < snapshot.size(); i++) {
+            loaded.addFromSnapshot(snapshot.student(i));
+        }
+        loaded.ensureIndexes();
+        return loaded;
+    }
+
+    @Benchmark
+    public int saveOneChange() throws IOException {
+        store.recordUpdate(edited);
+        return store.commit(repo.size());
+    }
+
+    @Benchmark
+    public Path writeBinarySnapshot() throws IOException {
+        Path tmp = dir.resolve("students.bin.tmp");
+        StudentBinary.write(tmp, repo.all());
+        return tmp;
+    }
+}
@@ -0,0 +1,57 @@
+package syntecxhub.students;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Roster lookups from a class of 10 to a university-wide roster of 1M.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StudentLookupBenchmark {
+    private static final int PROBES = 1 << 12;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int size;
+
+    private StudentRepository repo;
+    private final int[] ids = new int[PROBES];
+    private final String[] emails = new String[PROBES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        repo = Rosters.repository(size);
+        Random random = new Random(42);
+        for (int i = 0; i < PROBES; i++) {
+            // one probe in eight misses
+            int id = random.nextInt(8) == 0 ? size + 1 + i : 1 + random.nextInt(size);
+            ids[i] = id;
+            emails[i] = Rosters.email(id);
+        }
+    }
+
+    @Benchmark
+    public Student findById() {
+        return repo.findById(ids[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public Student findByEmail() {
+        return repo.findByEmail(emails[next++ & (PROBES - 1)]);
+    }
+}
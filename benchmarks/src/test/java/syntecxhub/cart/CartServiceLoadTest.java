@@ -0,0 +1,97 @@
+package syntecxhub.cart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// 10k shopper sessions hammered from a pool of threads while a tight
+// memory bound and a short idle TTL keep the sweeper evicting carts to
+// the spill directory. Every cart must end up with exactly the units its
+// shopper added and removed, whether or not it was spilled on the way.
+// Java 17 has no virtual threads, so shoppers share a platform pool.
+class CartServiceLoadTest {
+    private static final int SHOPPERS = 10_000;
+    private static final int THREADS = 200;
+    private static final int OPS = 400_000;
+    private static final int PRODUCTS = 50;
+
+    @TempDir
+    Path spillDir;
+
+    @Test
+    void tenThousandShoppersLoseNoUpdates() throws Exception {
+        ShoppingCartApp.PriceTable prices = new ShoppingCartApp.PriceTable();
+        for (int id = 1; id <= PRODUCTS; id++) prices.register(id, 1_000L * id);
+        int[][] expected = new int[SHOPPERS][PRODUCTS + 1];
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try (ShoppingCartApp.CartService carts = new ShoppingCartApp.CartService(
+                prices, Duration.ofMillis(20), 256 << 10, spillDir)) {
+            long start = System.nanoTime();
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                done.add(pool.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    for (int i = 0; i < OPS / THREADS; i++) {
+                        int shopper = random.nextInt(SHOPPERS);
+                        int id = 1 + random.nextInt(PRODUCTS);
+                        boolean remove = random.nextInt(4) == 0;
+                        carts.updateCart(session(shopper), cart -> {
+                            // the cart's lock also guards this shopper's expected row
+                            if (remove) {
+                                if (cart.remove(id)) expected[shopper][id] = 0;
+                            } else {
+                                cart.add(id, 1);
+                                expected[shopper][id]++;
+                            }
+                        });
+                    }
+                }));
+            }
+            for (Future<?> f : done) f.get();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            for (int shopper = 0; shopper < SHOPPERS; shopper++) {
+                int[] want = expected[shopper];
+                carts.updateCart(session(shopper), cart -> {
+                    long units = 0;
+                    long total = 0;
+                    for (int id = 1; id <= PRODUCTS; id++) {
+                        units += want[id];
+                        total += want[id] * 1_000L * id;
+                        assertEquals(want[id] > 0, cart.contains(id));
+                    }
+                    for (int line = 0; line < cart.lineCount(); line++) {
+                        assertEquals(want[cart.idAt(line)], cart.quantityAt(line));
+                    }
+                    assertEquals(units, cart.itemCount());
+                    assertEquals(total, cart.totalPaise());
+                });
+            }
+            System.out.printf("CartService: %,d shoppers on %d threads: %,.0f ops/sec, %,d evictions, %,d reloads%n",
+                    SHOPPERS, THREADS, OPS / seconds, carts.evictionCount(), carts.reloadCount());
+            assertTrue(carts.evictionCount() > 0, "the sweeper never evicted");
+            assertTrue(carts.reloadCount() > 0, "no spilled cart was reloaded");
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(Files.isDirectory(spillDir));
+    }
+
+    private static String session(int shopper) {
+        return "shopper-" + shopper;
+    }
+}
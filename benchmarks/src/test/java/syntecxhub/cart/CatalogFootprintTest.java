@@ -0,0 +1,57 @@
+package syntecxhub.cart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Heap held by 1M products loaded by CatalogLoader, whose names stay in the
+// mapped file until shown, and by the same file read into String names.
+// The mapping is off-heap: its pages count towards resident memory only
+// while the OS keeps them cached, and they can be dropped and re-read.
+class CatalogFootprintTest {
+    private static final int PRODUCTS = 1_000_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lazyNamesTakeLessHeapThanStrings() throws IOException {
+        Path file = dir.resolve("catalog.csv");
+        Catalogs.writeCsv(file, PRODUCTS);
+
+        long before = usedAfterGc();
+        ShoppingCartApp.CatalogLoader loader = new ShoppingCartApp.CatalogLoader();
+        ShoppingCartApp.CatalogLoader.Batch mapped = loader.load(file);
+        long lazy = usedAfterGc() - before;
+        assertEquals(PRODUCTS, mapped.products.size());
+        assertEquals(0, loader.malformedLines());
+        for (int id : new int[] { 1, 4_321, PRODUCTS }) {
+            assertEquals(Catalogs.name(id), mapped.products.get(id - 1).name());
+            assertEquals(id, mapped.products.get(id - 1).id);
+        }
+        Reference.reachabilityFence(mapped);
+        mapped = null;
+
+        before = usedAfterGc();
+        Object eager = Catalogs.readEager(file, new long[PRODUCTS]);
+        long strings = usedAfterGc() - before;
+        Reference.reachabilityFence(eager);
+
+        System.out.printf("Catalog of %,d products (%,d MB file): mapped %.1f bytes/product, Strings %.1f bytes/product%n",
+                PRODUCTS, Files.size(file) >> 20, (double) lazy / PRODUCTS, (double) strings / PRODUCTS);
+        assertTrue(lazy < strings, lazy + " vs " + strings);
+    }
+
+    private static long usedAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,114 @@
+package syntecxhub.cart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+// A sale on a few hot SKUs: 16 shoppers check out carts of one to three
+// lines until the stock runs out, then confirm, release or abandon each
+// reservation. Confirmed units must never exceed the stock, and once the
+// abandoned holds expire every unit is either sold or back on the shelf.
+// New products are added to the catalog throughout the sale and must
+// arrive with their stock without disturbing the checkouts.
+class InventoryLoadTest {
+    private static final int SKUS = 4;
+    private static final int NEW_PRODUCTS = 5_000;
+    private static final int STOCK = 100_000;
+    private static final int SHOPPERS = 16;
+    private static final int CHECKOUTS = 20_000;
+
+    @Test
+    void hotSkusAreNeverOversold() throws Exception {
+        ShoppingCartApp.PriceTable prices = new ShoppingCartApp.PriceTable();
+        AtomicIntegerArray sold = new AtomicIntegerArray(SKUS + 1);
+        LongAdder shortfalls = new LongAdder();
+        LongAdder abandoned = new LongAdder();
+        ExecutorService pool = Executors.newFixedThreadPool(SHOPPERS);
+        try (ShoppingCartApp.Inventory inventory = new ShoppingCartApp.Inventory(Duration.ofMillis(20))) {
+            for (int id = 1; id <= SKUS; id++) {
+                inventory.register(id, STOCK);
+                prices.register(id, 10_000);
+            }
+            List<Future<?>> shoppers = new ArrayList<>();
+            Future<?> supplier = pool.submit(() -> {
+                for (int id = SKUS + 1; id <= SKUS + NEW_PRODUCTS; id++) inventory.register(id, id);
+            });
+            for (int s = 0; s < SHOPPERS; s++) {
+                long seed = s;
+                shoppers.add(pool.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    for (int i = 0; i < CHECKOUTS; i++) {
+                        ShoppingCartApp.Cart cart = new ShoppingCartApp.Cart(prices);
+                        int lines = 1 + random.nextInt(3);
+                        while (cart.lineCount() < lines) cart.add(1 + random.nextInt(SKUS), 1 + random.nextInt(3));
+                        ShoppingCartApp.Inventory.Reservation reservation;
+                        try {
+                            reservation = inventory.reserve(cart);
+                        } catch (ShoppingCartApp.Inventory.OutOfStockException e) {
+                            shortfalls.increment();
+                            continue;
+                        }
+                        int outcome = random.nextInt(10);
+                        if (outcome < 6) {
+                            if (reservation.confirm()) {
+                                for (int l = 0; l < cart.lineCount(); l++) {
+                                    int total = sold.addAndGet(cart.idAt(l), cart.quantityAt(l));
+                                    assertTrue(total <= STOCK, "oversold product " + cart.idAt(l));
+                                }
+                            }
+                        } else if (outcome < 9) {
+                            reservation.release();
+                        } else {
+                            abandoned.increment();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : shoppers) f.get(2, TimeUnit.MINUTES);
+            supplier.get(2, TimeUnit.MINUTES);
+            for (int id = SKUS + 1; id <= SKUS + NEW_PRODUCTS; id++) {
+                assertEquals(id, inventory.available(id), "stock lost for new product " + id);
+            }
+
+            // abandoned holds go back once the sweeper expires them
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!allAccountedFor(inventory, sold) && System.nanoTime() < deadline) Thread.sleep(10);
+            for (int id = 1; id <= SKUS; id++) {
+                assertTrue(inventory.available(id) >= 0, "negative stock for product " + id);
+                assertEquals(STOCK, sold.get(id) + inventory.available(id), "units lost for product " + id);
+            }
+            System.out.printf("Inventory: %,d checkouts on %d SKUs from %d shoppers: %,d short, %,d abandoned, "
+                    + "%,d expired, %,d units sold%n", SHOPPERS * CHECKOUTS, SKUS, SHOPPERS, shortfalls.sum(),
+                    abandoned.sum(), inventory.expirationCount(), totalSold(sold));
+            assertTrue(shortfalls.sum() > 0, "the sale never ran out of stock");
+            assertTrue(inventory.expirationCount() >= abandoned.sum());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static boolean allAccountedFor(ShoppingCartApp.Inventory inventory, AtomicIntegerArray sold) {
+        for (int id = 1; id <= SKUS; id++) {
+            if (sold.get(id) + inventory.available(id) != STOCK) return false;
+        }
+        return true;
+    }
+
+    private static int totalSold(AtomicIntegerArray sold) {
+        int total = 0;
+        for (int id = 1; id <= SKUS; id++) total += sold.get(id);
+        return total;
+    }
+}
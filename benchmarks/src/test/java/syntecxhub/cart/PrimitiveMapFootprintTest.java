@@ -0,0 +1,47 @@
+package syntecxhub.cart;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+
+// Heap taken by 1M price slots (id -> slot) in IntIntMap and in the
+// HashMap<Integer, Integer> it replaced, measured as the used-heap growth
+// after a full GC while the map is still reachable.
+class PrimitiveMapFootprintTest {
+    private static final int ENTRIES = 1_000_000;
+
+    @Test
+    void primitiveMapTakesLessThanHalfTheHeap() {
+        long primitive = footprint(n -> {
+            ShoppingCartApp.IntIntMap map = new ShoppingCartApp.IntIntMap(n);
+            for (int i = 0; i < n; i++) map.put(100_000 + i * 7, i);
+            return map;
+        });
+        long boxed = footprint(n -> {
+            HashMap<Integer, Integer> map = new HashMap<>();
+            for (int i = 0; i < n; i++) map.put(100_000 + i * 7, i);
+            return map;
+        });
+        System.out.printf("IntIntMap: %.1f bytes/entry, HashMap<Integer, Integer>: %.1f bytes/entry%n",
+                (double) primitive / ENTRIES, (double) boxed / ENTRIES);
+        assertTrue(primitive * 2 < boxed, primitive + " vs " + boxed);
+    }
+
+    private static long footprint(IntFunction<Object> build) {
+        long before = usedAfterGc();
+        Object map = build.apply(ENTRIES);
+        long after = usedAfterGc();
+        Reference.reachabilityFence(map);
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,75 @@
+package syntecxhub.restaurant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+// Four waiters publishing into a small ring while one display drains:
+// waiters wait when the ring is full, so every ticket must reach the
+// display exactly once, in the order each waiter published it, at no
+// less than the 100k tickets/sec the kitchen is sized for.
+class KitchenQueueLoadTest {
+    private static final int WAITERS = 4;
+    private static final int TICKETS_PER_WAITER = 250_000;
+    private static final double TARGET_TICKETS_PER_SEC = 100_000;
+
+    @Test
+    void everyTicketIsDrainedOnceInOrder() throws Exception {
+        KitchenQueue queue = new KitchenQueue(1 << 12);
+        ExecutorService pool = Executors.newFixedThreadPool(WAITERS + 1);
+        AtomicBoolean publishing = new AtomicBoolean(true);
+        try {
+            Future<long[]> display = pool.submit(() -> {
+                long[] seen = new long[WAITERS];
+                long[] last = new long[WAITERS];
+                List<KitchenTicket> batch = new ArrayList<>(64);
+                while (publishing.get() || queue.depth() > 0) {
+                    batch.clear();
+                    queue.drainTo(batch, 64);
+                    for (KitchenTicket t : batch) {
+                        int waiter = t.getTableNo();
+                        // quantity carries the waiter's sequence number
+                        if (t.getQuantity() <= last[waiter]) throw new AssertionError("out of order: " + t.getQuantity());
+                        last[waiter] = t.getQuantity();
+                        seen[waiter]++;
+                    }
+                }
+                return seen;
+            });
+            long start = System.nanoTime();
+            List<Future<?>> waiters = new ArrayList<>();
+            for (int w = 0; w < WAITERS; w++) {
+                int waiter = w;
+                waiters.add(pool.submit(() -> {
+                    for (int i = 1; i <= TICKETS_PER_WAITER; i++) {
+                        queue.publish(new KitchenTicket(waiter, "Dosa", i, 0));
+                    }
+                }));
+            }
+            for (Future<?> f : waiters) f.get();
+            publishing.set(false);
+            long drained = 0;
+            for (long n : display.get()) drained += n;
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long total = (long) WAITERS * TICKETS_PER_WAITER;
+            assertEquals(total, queue.getPublished());
+            assertEquals(total, drained);
+            assertEquals(total, queue.getDrained());
+            System.out.printf("KitchenQueue: %d waiters, 1 display: %,.0f tickets/sec delivered, %,d waits for a full ring%n",
+                    WAITERS, drained / seconds, queue.getFullWaits());
+            assertTrue(drained / seconds >= TARGET_TICKETS_PER_SEC,
+                    String.format("%,.0f tickets/sec is below the %,.0f target", drained / seconds, TARGET_TICKETS_PER_SEC));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package syntecxhub.restaurant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+// Many waiters ordering for 60 tables at once: no unit may be lost and
+// every order must price its lines exactly. Prints orders/sec per thread
+// count; the scaling shows on a machine with several cores.
+class OrderEngineLoadTest {
+    private static final int TABLES = 60;
+    private static final int ORDERS_PER_WAITER = 50_000;
+
+    @Test
+    void ordersFromManyWaitersAreAllCounted() throws Exception {
+        Menu menu = new Menu();
+        MenuItem[] items = new MenuItem[20];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = menu.addItem("Dish " + i, 15_000 + 500 * i);
+        }
+        run(new OrderEngine(), items, 1); // warm-up
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int waiters = 1; waiters <= Math.max(4, cores); waiters *= 2) {
+            OrderEngine engine = new OrderEngine();
+            double seconds = run(engine, items, waiters);
+            long units = 0;
+            for (Order order : engine.openOrders()) {
+                long lineTotal = 0;
+                for (OrderItem line : order.copyLines()) {
+                    units += line.getQuantity();
+                    lineTotal += line.getTotalPaise();
+                }
+                assertEquals(lineTotal, order.getSubtotalPaise(), "table " + order.getTableNo());
+            }
+            long orders = (long) waiters * ORDERS_PER_WAITER;
+            assertEquals(orders * 2, units);
+            KitchenBoard kitchen = engine.getKitchen();
+            assertEquals(orders, kitchen.getQueue().getPublished());
+            assertEquals(orders, kitchen.pending()); // nothing dropped, even past the ring's capacity
+            System.out.printf("OrderEngine: %d waiter(s) on %d core(s): %,.0f orders/sec%n",
+                    waiters, cores, orders / seconds);
+        }
+    }
+
+    private static double run(OrderEngine engine, MenuItem[] items, int waiters) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(waiters);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int w = 0; w < waiters; w++) {
+                long seed = w;
+                done.add(pool.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    for (int i = 0; i < ORDERS_PER_WAITER; i++) {
+                        engine.addOrderItem(1 + random.nextInt(TABLES), new OrderItem(items[random.nextInt(items.length)], 2));
+                    }
+                }));
+            }
+            for (Future<?> f : done) f.get();
+            return (System.nanoTime() - start) / 1e9;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package syntecxhub.stats;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// An app's hot-path latencies, printed by its Stats menu option and
+// published over JMX as <app>:type=HotPathStats.
+public final class HotPathStats implements HotPathStatsMXBean {
+    private final String app;
+    private final LatencyStats[] operations;
+
+    public HotPathStats(String app, LatencyStats... operations) {
+        this.app = app;
+        this.operations = operations.clone();
+    }
+
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(app + ":type=HotPathStats"));
+        } catch (JMException e) {
+            System.out.println("Could not register stats MBean: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<OperationStats> getOperations() {
+        List<OperationStats> list = new ArrayList<>(operations.length);
+        for (LatencyStats stats : operations) list.add(OperationStats.of(stats));
+        return list;
+    }
+
+    // The table under the caller's heading
+    public void print() {
+        System.out.println(String.format("%-14s %10s %10s %10s %10s %10s",
+                "Operation", "Count", "p50 (us)", "p99 (us)", "Max (us)", "Ops/sec"));
+        for (LatencyStats stats : operations) {
+            OperationStats op = OperationStats.of(stats);
+            System.out.println(String.format("%-14s %10d %10.1f %10.1f %10.1f %10.1f", op.getName(), op.getCount(),
+                    op.getP50Micros(), op.getP99Micros(), op.getMaxMicros(), op.getThroughputPerSecond()));
+        }
+    }
+}
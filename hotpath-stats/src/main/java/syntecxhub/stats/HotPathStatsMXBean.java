@@ -0,0 +1,7 @@
+package syntecxhub.stats;
+
+import java.util.List;
+
+public interface HotPathStatsMXBean {
+    List<OperationStats> getOperations();
+}
@@ -0,0 +1,36 @@
+package syntecxhub.stats;
+
+import java.beans.ConstructorProperties;
+
+// One operation's figures as JMX clients see them
+public final class OperationStats {
+    private final String name;
+    private final long count;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double maxMicros;
+    private final double throughputPerSecond;
+
+    @ConstructorProperties({"name", "count", "p50Micros", "p99Micros", "maxMicros", "throughputPerSecond"})
+    public OperationStats(String name, long count, double p50Micros, double p99Micros, double maxMicros,
+                          double throughputPerSecond) {
+        this.name = name;
+        this.count = count;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+        this.throughputPerSecond = throughputPerSecond;
+    }
+
+    public static OperationStats of(LatencyStats stats) {
+        return new OperationStats(stats.getName(), stats.count(), stats.percentileNanos(50) / 1e3,
+                stats.percentileNanos(99) / 1e3, stats.maxNanos() / 1e3, stats.throughputPerSecond());
+    }
+
+    public String getName() { return name; }
+    public long getCount() { return count; }
+    public double getP50Micros() { return p50Micros; }
+    public double getP99Micros() { return p99Micros; }
+    public double getMaxMicros() { return maxMicros; }
+    public double getThroughputPerSecond() { return throughputPerSecond; }
+}